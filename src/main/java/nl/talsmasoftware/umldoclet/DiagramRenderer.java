@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet;
+
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.logging.BufferedLogger;
+import nl.talsmasoftware.umldoclet.logging.Logger;
+import nl.talsmasoftware.umldoclet.uml.Diagram;
+import nl.talsmasoftware.umldoclet.uml.DiagramCache;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import static java.util.Objects.requireNonNull;
+import static nl.talsmasoftware.umldoclet.logging.Message.ERROR_UNANTICIPATED_ERROR_GENERATING_DIAGRAMS;
+import static nl.talsmasoftware.umldoclet.logging.Message.INFO_GENERATING_FILE;
+
+/**
+ * Renders diagram images, either on the calling thread or on a bounded pool of worker threads.
+ * <p>
+ * The number of threads is configured by the {@code "-umlRenderThreads"} option.
+ * When rendering in parallel, at most two diagrams per thread are queued;
+ * further diagrams are rendered by the calling thread until the queue has room again.
+ * <p>
+ * Diagrams are logged on the calling thread in the order they were submitted,
+ * so the log output does not depend on the number of render threads.
+ * Messages that the {@code whenRendered} callback logs on a render thread are buffered per diagram
+ * and written on the calling thread, also in the order the diagrams were submitted.
+ * The first failing render stops all further rendering and is rethrown as {@link UMLDocletException}.
+ * Errors, such as a {@link StackOverflowError} from the PlantUML layout, are rethrown as-is,
+ * exactly as they would be when rendering on the calling thread.
+ * <p>
+ * Rendered images are kept in the {@link DiagramCache} if a {@code "-umlCacheDirectory"} is configured.
+ * Each diagram is handed to the {@code whenRendered} callback on the rendering thread, together with the logger
+ * to use, as soon as its images are rendered. After that, the renderer no longer references the diagram.
+ *
+ * @author Sjoerd Talsma
+ */
+final class DiagramRenderer implements AutoCloseable {
+
+    private final Configuration config;
+    private final ThreadPoolExecutor executor;
+    private final DiagramCache cache;
+    private final BiConsumer<Diagram, Logger> whenRendered;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    /**
+     * Diagrams submitted to the render threads whose messages are not yet logged, in submission order.
+     * Only accessed by the calling thread.
+     */
+    private final Queue<RenderTask> pending = new ArrayDeque<>();
+
+    DiagramRenderer(Configuration config, BiConsumer<Diagram, Logger> whenRendered) {
+        this.config = requireNonNull(config, "Configuration is <null>.");
+        this.whenRendered = requireNonNull(whenRendered, "Rendered diagram callback is <null>.");
+        final int threads = config.images().renderThreads();
+        this.executor = threads <= 1 ? null : new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(2 * threads), new RenderThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.cache = DiagramCache.forConfiguration(config);
+    }
+
+    /**
+     * Renders the diagram, possibly asynchronously.
+     *
+     * @param diagram The diagram to be rendered.
+     * @throws UMLDocletException if a previously submitted diagram failed to render.
+     */
+    void render(Diagram diagram) {
+        rethrowFailure();
+        logRendered();
+        diagram.getDiagramFiles().forEach(diagramFile -> config.logger().info(INFO_GENERATING_FILE, diagramFile));
+        if (executor == null) {
+            renderOrRecordFailure(diagram, config.logger());
+        } else {
+            final RenderTask task = new RenderTask(diagram);
+            pending.add(task);
+            executor.execute(task);
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Waits until all submitted diagrams are rendered.
+     *
+     * @throws UMLDocletException if any of the diagrams failed to render.
+     */
+    void awaitCompletion() {
+        if (executor != null) try {
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                rethrowFailure();
+                logRendered();
+            }
+            pending.forEach(task -> task.messages.flush());
+            pending.clear();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new UMLDocletException(ERROR_UNANTICIPATED_ERROR_GENERATING_DIAGRAMS, ie);
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Logs the buffered messages of the rendered diagrams, up to the first diagram that is still being rendered.
+     */
+    private void logRendered() {
+        while (!pending.isEmpty() && pending.peek().done) pending.remove().messages.flush();
+    }
+
+    private void renderOrRecordFailure(Diagram diagram, Logger logger) {
+        if (failure.get() == null) try {
+            diagram.render(cache);
+            whenRendered.accept(diagram, logger);
+        } catch (Throwable renderFailure) {
+            if (failure.compareAndSet(null, renderFailure) && executor != null) executor.shutdownNow();
+        }
+    }
+
+    private void rethrowFailure() {
+        final Throwable renderFailure = failure.get();
+        if (renderFailure instanceof Error) {
+            throw (Error) renderFailure;
+        } else if (renderFailure instanceof UMLDocletException) {
+            throw (UMLDocletException) renderFailure;
+        } else if (renderFailure != null) {
+            throw new UMLDocletException(ERROR_UNANTICIPATED_ERROR_GENERATING_DIAGRAMS, renderFailure);
+        }
+    }
+
+    /**
+     * Stops rendering diagrams that have not been started yet and closes the diagram cache.
+     */
+    @Override
+    public void close() {
+        if (executor != null) executor.shutdownNow();
+        cache.close();
+    }
+
+    /**
+     * Renders a diagram on a render thread, buffering the messages logged for it.
+     */
+    private final class RenderTask implements Runnable {
+        private final BufferedLogger messages = new BufferedLogger(config.logger());
+        private Diagram diagram;
+        private volatile boolean done = false;
+
+        private RenderTask(Diagram diagram) {
+            this.diagram = diagram;
+        }
+
+        @Override
+        public void run() {
+            try {
+                renderOrRecordFailure(diagram, messages);
+            } finally {
+                diagram = null;
+                done = true;
+            }
+        }
+    }
+
+    private static final class RenderThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "umldoclet-render-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
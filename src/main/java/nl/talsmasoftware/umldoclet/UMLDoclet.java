@@ -18,10 +18,13 @@ package nl.talsmasoftware.umldoclet;
 import jdk.javadoc.doclet.DocletEnvironment;
 import jdk.javadoc.doclet.Reporter;
 import jdk.javadoc.doclet.StandardDoclet;
+import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.version.Version;
 import nl.talsmasoftware.umldoclet.html.HtmlPostprocessor;
 import nl.talsmasoftware.umldoclet.javadoc.DocletConfig;
+import nl.talsmasoftware.umldoclet.javadoc.IncrementalManifest;
 import nl.talsmasoftware.umldoclet.javadoc.UMLFactory;
+import nl.talsmasoftware.umldoclet.logging.Logger;
 import nl.talsmasoftware.umldoclet.uml.Diagram;
 import nl.talsmasoftware.umldoclet.uml.UMLRoot;
 
@@ -29,14 +32,15 @@ import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
+import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
-import static java.util.stream.Collectors.toList;
 import static nl.talsmasoftware.umldoclet.logging.Message.DOCLET_COPYRIGHT;
 import static nl.talsmasoftware.umldoclet.logging.Message.DOCLET_VERSION;
 import static nl.talsmasoftware.umldoclet.logging.Message.ERROR_UNANTICIPATED_ERROR_GENERATING_DIAGRAMS;
@@ -86,28 +90,58 @@ public class UMLDoclet extends StandardDoclet {
         config.logger().info(DOCLET_COPYRIGHT, DOCLET_VERSION);
         config.logger().info(PLANTUML_COPYRIGHT, Version.versionString());
 
-        // First generate Standard HTML documentation
+        // First generate Standard HTML documentation.
+        // Diagrams are inserted afterwards: links in the diagrams are only generated to HTML files that exist,
+        // and the standard doclet requires its own (internal) environment, so its output cannot be intercepted.
         if (!super.run(docEnv)) return false;
 
+        final HtmlPostprocessor postprocessor = new HtmlPostprocessor(config);
         try {
-            Collection<Diagram> umlDiagrams = generatePlantUMLContent(docEnv)
-                    .flatMap(this::generateDiagrams)
-                    .collect(toList());
-
-            return postProcessHtml(umlDiagrams);
+            if (config.images().existingImagesOnly()) addExistingImages(postprocessor);
+            else generateUml(docEnv, postprocessor);
+            return true;
         } catch (UMLDocletException docletException) {
             docletException.logTo(config.logger());
             return false;
         }
     }
 
-    private Stream<UMLRoot> generatePlantUMLContent(DocletEnvironment docEnv) {
+    private void generateUml(DocletEnvironment docEnv, HtmlPostprocessor postprocessor) {
+        try (DiagramRenderer renderer = new DiagramRenderer(config, (diagram, logger) -> postProcessHtml(postprocessor, diagram, logger))) {
+            IncrementalManifest manifest = IncrementalManifest.load(config, docEnv);
+            UMLFactory factory = new UMLFactory(config, docEnv);
+            docEnv.getIncludedElements().stream()
+                    .filter(manifest::isChanged)
+                    .forEach(element -> generatePlantUMLContent(factory, element)
+                            .flatMap(this::generateDiagrams)
+                            .peek(diagram -> manifest.recordDiagram(element, diagram))
+                            .forEach(renderer::render));
+            renderer.awaitCompletion();
+
+            // Diagrams of unchanged elements were not rendered again; add their existing images to the HTML.
+            postProcessHtml(postprocessor, manifest.unchangedDiagrams());
+            rethrowPostprocessingFailures(postprocessor);
+            manifest.save();
+        }
+    }
+
+    /**
+     * Adds the images that exist in the destination directory to the HTML, without generating any diagrams.
+     */
+    private void addExistingImages(HtmlPostprocessor postprocessor) {
         try {
 
-            UMLFactory factory = new UMLFactory(config, docEnv);
-            return docEnv.getIncludedElements().stream()
-                    .map(element -> mapToDiagram(factory, element))
-                    .filter(Optional::isPresent).map(Optional::get)
+            postprocessor.postProcessHtml();
+
+        } catch (IOException | RuntimeException exception) {
+            throw new UMLDocletException(ERROR_UNANTICIPATED_ERROR_POSTPROCESSING_HTML, exception);
+        }
+    }
+
+    private Stream<UMLRoot> generatePlantUMLContent(UMLFactory factory, Element element) {
+        try {
+
+            return mapToDiagram(factory, element).stream()
                     .peek(UMLRoot::render);
 
         } catch (RuntimeException rte) {
@@ -118,24 +152,41 @@ public class UMLDoclet extends StandardDoclet {
     private Stream<Diagram> generateDiagrams(UMLRoot plantUMLRoot) {
         try {
 
-            return config.images().formats().stream()
-                    .map(format -> new Diagram(plantUMLRoot, format))
-                    .peek(Diagram::render);
+            Collection<FileFormat> formats = config.images().formats();
+            return formats.isEmpty() ? Stream.empty() : Stream.of(new Diagram(plantUMLRoot, formats));
 
         } catch (RuntimeException rte) {
             throw new UMLDocletException(ERROR_UNANTICIPATED_ERROR_GENERATING_DIAGRAMS, rte);
         }
     }
 
-    private boolean postProcessHtml(Collection<Diagram> diagrams) {
+    private void postProcessHtml(HtmlPostprocessor postprocessor, Diagram diagram, Logger logger) {
         try {
 
-            return new HtmlPostprocessor(config, diagrams).postProcessHtml();
+            postprocessor.postProcess(diagram.getHtmlFile(), diagram.getDiagramFiles().get(0), logger);
 
-        } catch (IOException | RuntimeException ex) {
-            config.logger().error(ERROR_UNANTICIPATED_ERROR_POSTPROCESSING_HTML, ex);
-            ex.printStackTrace(System.err);
-            return false;
+        } catch (RuntimeException rte) {
+            throw new UMLDocletException(ERROR_UNANTICIPATED_ERROR_POSTPROCESSING_HTML, rte);
+        }
+    }
+
+    private void postProcessHtml(HtmlPostprocessor postprocessor, Map<File, File> diagramFilesByHtmlFile) {
+        try {
+
+            postprocessor.postProcess(diagramFilesByHtmlFile);
+
+        } catch (RuntimeException rte) {
+            throw new UMLDocletException(ERROR_UNANTICIPATED_ERROR_POSTPROCESSING_HTML, rte);
+        }
+    }
+
+    private void rethrowPostprocessingFailures(HtmlPostprocessor postprocessor) {
+        try {
+
+            postprocessor.rethrowFailures();
+
+        } catch (RuntimeException rte) {
+            throw new UMLDocletException(ERROR_UNANTICIPATED_ERROR_POSTPROCESSING_HTML, rte);
         }
     }
 
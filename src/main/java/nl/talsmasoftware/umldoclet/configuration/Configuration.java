@@ -17,7 +17,9 @@ package nl.talsmasoftware.umldoclet.configuration;
 
 import nl.talsmasoftware.umldoclet.logging.Logger;
 import nl.talsmasoftware.umldoclet.rendering.indent.Indentation;
+import nl.talsmasoftware.umldoclet.util.RelativePaths;
 
+import java.io.File;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.List;
@@ -74,6 +76,20 @@ public interface Configuration {
      */
     List<String> excludedTypeReferences();
 
+    /**
+     * @return Relative paths between files, with directories canonicalized once for the entire doclet run.
+     */
+    RelativePaths relativePaths();
+
+    /**
+     * Resolves the generated documentation page of the specified type in the {@link #destinationDirectory()}.
+     *
+     * @param packageName The package of the type.
+     * @param type        The type name within the package.
+     * @return The documentation page, if it was generated
+     */
+    Optional<File> resolveDocumentationPage(String packageName, String type);
+
     /**
      * Resolves an external link to the specified type.
      *
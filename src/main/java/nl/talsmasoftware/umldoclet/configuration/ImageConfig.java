@@ -42,4 +42,56 @@ public interface ImageConfig {
      */
     Collection<FileFormat> formats();
 
+    /**
+     * Whether to add previously generated images to the documentation instead of generating diagrams.
+     * <p>
+     * Providing the {@code "-umlExistingImages"} option scans the destination (or image) directory
+     * for existing diagram images and adds them to the HTML generated by the Standard doclet.
+     * No UML is generated and no images are rendered.
+     *
+     * @return {@code true} if only existing images should be added to the documentation.
+     */
+    boolean existingImagesOnly();
+
+    /**
+     * The number of threads that are used to render the diagram images.
+     * <p>
+     * Rendering happens on the javadoc thread by default. Providing the {@code "-umlRenderThreads"} option
+     * renders the images in parallel instead, where {@code 0} uses one thread per available processor.
+     *
+     * @return The number of threads to render images with (at least {@code 1}).
+     */
+    int renderThreads();
+
+    /**
+     * The number of threads that are used to add the diagram images to their HTML files.
+     * <p>
+     * This applies when existing images are added in bulk, such as the images of unchanged diagrams
+     * or all images with the {@code "-umlExistingImages"} option.
+     * Images that are rendered are added by their render thread as soon as they are rendered.
+     * Providing the {@code "-umlPostprocessThreads"} option processes the HTML files in parallel,
+     * where {@code 0} uses one thread per available processor.
+     *
+     * @return The number of threads to postprocess HTML files with (at least {@code 1}).
+     */
+    int postprocessThreads();
+
+    /**
+     * The directory where rendered images are cached between javadoc runs.
+     * <p>
+     * Unchanged diagrams are copied from this cache instead of being rendered again.
+     *
+     * @return The image cache directory, if explicitly specified by the {@code "-umlCacheDirectory"} option.
+     */
+    Optional<String> cacheDirectory();
+
+    /**
+     * The maximum size of the image cache.
+     * <p>
+     * The least recently used images are evicted from the cache when it grows beyond this size.
+     *
+     * @return The maximum size of the image cache in bytes.
+     */
+    long cacheSizeLimit();
+
 }
@@ -18,6 +18,7 @@ package nl.talsmasoftware.umldoclet.html;
 import net.sourceforge.plantuml.FileFormat;
 import nl.talsmasoftware.umldoclet.configuration.Configuration;
 import nl.talsmasoftware.umldoclet.util.FileUtils;
+import nl.talsmasoftware.umldoclet.util.RelativePaths;
 
 import java.io.File;
 import java.io.IOException;
@@ -32,9 +33,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
+import java.util.stream.StreamSupport;
 
 import static java.util.Collections.unmodifiableCollection;
 import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -42,16 +45,17 @@ import static java.util.stream.Collectors.toList;
  *
  * @author Sjoerd Talsma
  */
-final class DiagramCollector extends SimpleFileVisitor<Path> {
+final class DiagramCollector {
     private static final Pattern PACKAGE_DIAGRAM_PATTERN = Pattern.compile("package.[a-z]+$");
 
     private final File basedir;
+    private final RelativePaths relativePaths;
     private final Optional<File> imagesDirectory;
     private final List<String> diagramExtensions;
-    private final ThreadLocal<Collection<UmlDiagram>> collected = ThreadLocal.withInitial(ArrayList::new);
 
     DiagramCollector(Configuration config) {
         this.basedir = new File(config.destinationDirectory());
+        this.relativePaths = config.relativePaths();
         this.diagramExtensions = unmodifiableList(config.images().formats().stream()
                 .map(FileFormat::getFileSuffix)
                 .map(String::toLowerCase)
@@ -69,32 +73,53 @@ final class DiagramCollector extends SimpleFileVisitor<Path> {
      */
     Collection<UmlDiagram> collectDiagrams() throws IOException {
         if (diagramExtensions.isEmpty()) return Collections.emptySet();
-        try {
-            Files.walkFileTree(imagesDirectory.orElse(basedir).toPath(), this);
-            return unmodifiableCollection(collected.get());
-        } finally {
-            collected.remove();
-        }
+        final Collection<UmlDiagram> collected = new ArrayList<>();
+        Files.walkFileTree(imagesDirectory.orElse(basedir).toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && FileUtils.hasExtension(path, diagramExtensions.get(0))) {
+                    createDiagramInstance(path).ifPresent(collected::add);
+                }
+                return super.visitFile(path, attrs);
+            }
+        });
+        return unmodifiableCollection(collected);
     }
 
-    @Override
-    public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
-        if (attrs.isRegularFile() && FileUtils.hasExtension(path, diagramExtensions.get(0))) {
-            createDiagramInstance(path).ifPresent(collected.get()::add);
-        }
-        return super.visitFile(path, attrs);
+    /**
+     * Determines the path to look up the diagram of an HTML file by.
+     * <p>
+     * Without images directory, this is simply the relative path of the HTML file.
+     * With an images directory, the path is flattened into a dot-separated name to match the diagram file name:
+     * both {@code pkg/Outer.html} and {@code pkg/Outer.Inner.html} are found by their qualified type name.
+     * This is unambiguous because a package and a type cannot have the same qualified name.
+     *
+     * @param htmlPath The path of the HTML file.
+     * @return The path to look up the diagram of the HTML file by.
+     * @see UmlDiagram#htmlPath()
+     */
+    String htmlPath(Path htmlPath) {
+        final String separator = imagesDirectory.isPresent() ? "." : "/";
+        return StreamSupport.stream(basedir.toPath().relativize(htmlPath).normalize().spliterator(), false)
+                .map(Path::toString).collect(joining(separator));
     }
 
     private boolean isPackageDiagram(File diagramFile) {
         return PACKAGE_DIAGRAM_PATTERN.matcher(diagramFile.getName()).find();
     }
 
-    private Optional<UmlDiagram> createDiagramInstance(Path diagramPath) {
+    /**
+     * Creates the diagram abstraction for a single generated diagram file.
+     *
+     * @param diagramPath The path of the generated diagram file.
+     * @return The diagram abstraction for the file.
+     */
+    Optional<UmlDiagram> createDiagramInstance(Path diagramPath) {
         File diagramFile = diagramPath.normalize().toFile();
         if (isPackageDiagram(diagramFile)) {
-            return Optional.of(new UmlPackageDiagram(basedir, diagramFile, imagesDirectory.isPresent()));
+            return Optional.of(new UmlPackageDiagram(basedir, diagramFile, imagesDirectory.isPresent(), relativePaths));
         }
-        return Optional.of(new UmlClassDiagram(basedir, diagramFile, imagesDirectory.isPresent()));
+        return Optional.of(new UmlClassDiagram(basedir, diagramFile, imagesDirectory.isPresent(), relativePaths));
     }
 
 }
@@ -17,15 +17,16 @@ package nl.talsmasoftware.umldoclet.html;
 
 import net.sourceforge.plantuml.FileUtils;
 import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.logging.Logger;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.util.Objects.requireNonNull;
 import static nl.talsmasoftware.umldoclet.logging.Message.DEBUG_COPIED_FILE_FROM;
 import static nl.talsmasoftware.umldoclet.logging.Message.DEBUG_RENAMED_FILE_FROM;
@@ -41,10 +42,16 @@ final class HtmlFile {
 
     final Configuration config;
     final Path path;
+    private final Logger logger;
 
     HtmlFile(Configuration config, Path path) {
+        this(config, path, config.logger());
+    }
+
+    HtmlFile(Configuration config, Path path, Logger logger) {
         this.config = requireNonNull(config, "Configuration is <null>.");
         this.path = requireNonNull(path, "HTML file is <null>.").normalize();
+        this.logger = requireNonNull(logger, "Logger is <null>.");
     }
 
     static boolean isHtmlFile(Path path) {
@@ -54,22 +61,24 @@ final class HtmlFile {
                 .isPresent();
     }
 
-    boolean process(Collection<UmlDiagram> diagrams) {
-        return diagrams.stream()
-                .map(diagram -> diagram.createPostprocessor(this))
-                .filter(Optional::isPresent).map(Optional::get).findFirst()
-                .map(this::process)
-                .orElseGet(this::skip);
+    /**
+     * Adds the diagram to this HTML file.
+     *
+     * @param diagram The diagram belonging in this HTML file, or {@code null} if there is none.
+     * @return {@code true} if the diagram was added, otherwise {@code false}.
+     */
+    boolean process(UmlDiagram diagram) {
+        return diagram == null ? skip() : process(diagram.newPostprocessor(this));
     }
 
     private boolean skip() {
-        config.logger().debug(DEBUG_SKIPPING_FILE, path);
+        logger.debug(DEBUG_SKIPPING_FILE, path);
         return false;
     }
 
     private boolean process(Postprocessor postprocessor) {
         try {
-            config.logger().info(INFO_ADD_DIAGRAM_TO_FILE, path);
+            logger.info(INFO_ADD_DIAGRAM_TO_FILE, path);
             return postprocessor.call();
         } catch (IOException ioe) {
             throw new IllegalStateException("I/O exception postprocessing " + path, ioe);
@@ -80,14 +89,23 @@ final class HtmlFile {
         return Files.readAllLines(path, config.htmlCharset());
     }
 
+    /**
+     * Replaces this HTML file by the postprocessed temporary file.
+     * <p>
+     * The original file is never deleted first, so other threads checking for
+     * the existence of this HTML file never miss it.
+     *
+     * @param tempFile The postprocessed temporary file.
+     * @throws IOException In case of I/O errors replacing the file.
+     */
     public void replaceBy(File tempFile) throws IOException {
         File original = path.toFile();
-        if (!original.delete()) throw new IllegalStateException("Cannot delete " + original);
-        if (tempFile.renameTo(original)) {
-            config.logger().debug(DEBUG_RENAMED_FILE_FROM, original, tempFile);
-        } else {
+        try {
+            Files.move(tempFile.toPath(), path, ATOMIC_MOVE);
+            logger.debug(DEBUG_RENAMED_FILE_FROM, original, tempFile);
+        } catch (IOException | UnsupportedOperationException moveFailure) {
             FileUtils.copyToFile(tempFile, original);
-            config.logger().debug(DEBUG_COPIED_FILE_FROM, original, tempFile);
+            logger.debug(DEBUG_COPIED_FILE_FROM, original, tempFile);
             if (!tempFile.delete()) {
                 throw new IllegalStateException("Cannot delete " + tempFile + " after postprocessing!");
             }
@@ -16,42 +16,199 @@
 package nl.talsmasoftware.umldoclet.html;
 
 import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.logging.BufferedLogger;
+import nl.talsmasoftware.umldoclet.logging.Logger;
 import nl.talsmasoftware.umldoclet.uml.Diagram;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toMap;
 
 /**
  * Postprocesses the HTML output from the standard doclet to add UML diagrams.
+ * <p>
+ * Diagrams can be added to their HTML file one at a time as soon as they are rendered,
+ * or all at once by scanning the destination directory for generated diagram files.
+ * <p>
+ * Every HTML file is postprocessed in isolation: a failure for one file does not stop the others.
+ * All failures are collected and {@link #rethrowFailures() rethrown} together.
  *
  * @author Sjoerd Talsma
  */
 public class HtmlPostprocessor {
     private final Configuration config;
-    private final Collection<Diagram> diagrams;
+    private final DiagramCollector diagramCollector;
+    private final Collection<RuntimeException> failures = new ConcurrentLinkedQueue<>();
 
-    public HtmlPostprocessor(Configuration config, Collection<Diagram> diagrams) {
+    public HtmlPostprocessor(Configuration config) {
         this.config = requireNonNull(config, "Configuration is <null>.");
-        this.diagrams = requireNonNull(diagrams, "Generated diagram collection is <null>.");
+        this.diagramCollector = new DiagramCollector(config);
     }
 
+    /**
+     * Adds a single rendered diagram to the HTML file it belongs in.
+     * <p>
+     * Both files are known from the {@link Diagram} that was rendered,
+     * so there is no need to scan the destination directory.
+     * This method may be called concurrently for different diagrams.
+     *
+     * @param htmlFile    The HTML file the diagram belongs in.
+     * @param diagramFile The rendered diagram image to add.
+     * @return {@code true} if the diagram was added to its HTML file, otherwise {@code false}.
+     */
+    public boolean postProcess(File htmlFile, File diagramFile) {
+        return postProcess(htmlFile, diagramFile, config.logger());
+    }
+
+    /**
+     * Adds a single rendered diagram to the HTML file it belongs in, logging to the specified logger.
+     *
+     * @param htmlFile    The HTML file the diagram belongs in.
+     * @param diagramFile The rendered diagram image to add.
+     * @param logger      The logger to log the postprocessing of the HTML file to.
+     * @return {@code true} if the diagram was added to its HTML file, otherwise {@code false}.
+     * @see #postProcess(File, File)
+     */
+    public boolean postProcess(File htmlFile, File diagramFile, Logger logger) {
+        if (!diagramFile.isFile() || !HtmlFile.isHtmlFile(htmlFile.toPath())) return false;
+        return diagramCollector.createDiagramInstance(diagramFile.toPath())
+                .map(umlDiagram -> process(new HtmlFile(config, htmlFile.toPath(), logger), umlDiagram))
+                .orElse(false);
+    }
+
+    /**
+     * Adds existing diagrams to their HTML files.
+     * <p>
+     * Each HTML file is known together with its diagram, for example from the
+     * {@link nl.talsmasoftware.umldoclet.javadoc.IncrementalManifest manifest} of unchanged diagrams,
+     * so there is no need to scan the destination directory.
+     * <p>
+     * The HTML files are processed in parallel by the configured number of {@code "-umlPostprocessThreads"}.
+     * Failures are collected for {@link #rethrowFailures()}.
+     *
+     * @param diagramFilesByHtmlFile The existing diagram images to add, by the HTML file they belong in.
+     * @throws IllegalStateException If processing was interrupted.
+     */
+    public void postProcess(Map<File, File> diagramFilesByHtmlFile) {
+        processAll(diagramFilesByHtmlFile.entrySet().stream()
+                        .map(entry -> logger -> postProcess(entry.getKey(), entry.getValue(), logger)),
+                "existing diagrams");
+    }
+
+    /**
+     * Adds all diagrams found in the destination directory to their HTML files.
+     * <p>
+     * This directory-scan mode adds existing diagram images without rendering them ({@code "-umlExistingImages"}).
+     * Otherwise the doclet {@link #postProcess(File, File) postprocesses} each diagram as it is rendered.
+     * Each HTML file is matched to its diagram by a single lookup of its relative path.
+     * HTML files that already contain their diagram are left untouched.
+     * <p>
+     * The HTML files are processed in parallel by the configured number of {@code "-umlPostprocessThreads"}.
+     *
+     * @return {@code true} if the HTML was postprocessed successfully.
+     * @throws IOException In case there were I/O errors walking the destination directory.
+     * @throws IllegalStateException If one or more HTML files could not be postprocessed.
+     */
     public boolean postProcessHtml() throws IOException {
         final File destinationDir = new File(config.destinationDirectory());
         if (!destinationDir.isDirectory() || !destinationDir.canRead()) {
             throw new IllegalStateException("Cannot read from configured destination directory \"" + destinationDir + "\"!");
         }
-        final Collection<UmlDiagram> diagrams = new DiagramCollector(config).collectDiagrams();
+        final Map<String, UmlDiagram> diagramsByHtmlPath = diagramCollector.collectDiagrams().stream()
+                .collect(toMap(UmlDiagram::htmlPath, identity(), (first, second) -> first));
 
-        long count = Files.walk(destinationDir.toPath())
-                .filter(HtmlFile::isHtmlFile)
-                .map(path -> new HtmlFile(config, path))
-                .map(htmlFile -> htmlFile.process(diagrams))
-                .filter(Boolean::booleanValue).count();
+        try (Stream<Path> htmlFiles = Files.walk(destinationDir.toPath()).filter(HtmlFile::isHtmlFile)) {
+            processAll(htmlFiles.map(path -> logger -> process(diagramsByHtmlPath, path, logger)), destinationDir);
+        }
+        rethrowFailures();
         return true;
     }
 
+    /**
+     * Throws a single exception for all HTML files that failed to be postprocessed so far.
+     *
+     * @throws IllegalStateException Containing every failure as suppressed exception, if there were any failures.
+     */
+    public void rethrowFailures() {
+        final List<RuntimeException> failed = new ArrayList<>(failures);
+        if (!failed.isEmpty()) {
+            final String newline = System.lineSeparator() + "  ";
+            IllegalStateException aggregate = new IllegalStateException(failed.size() + " HTML file(s) could not be postprocessed:"
+                    + failed.stream().map(Throwable::getMessage).collect(joining(newline, newline, "")));
+            failed.forEach(aggregate::addSuppressed);
+            throw aggregate;
+        }
+    }
+
+    /**
+     * Runs the postprocessing tasks on the configured number of {@code "-umlPostprocessThreads"}.
+     * <p>
+     * Failures postprocessing the individual HTML files are collected rather than thrown,
+     * so one failure does not stop the other files from being processed.
+     * The messages of tasks on other threads are buffered and logged in the order of the tasks,
+     * so the log output does not depend on the number of threads.
+     *
+     * @param tasks       The postprocessing tasks to run, each logging to the logger it is given.
+     * @param description Description of what is being postprocessed, for error messages.
+     */
+    private void processAll(Stream<Function<Logger, Boolean>> tasks, Object description) {
+        final int threads = config.images().postprocessThreads();
+        if (threads <= 1) {
+            tasks.forEach(task -> task.apply(config.logger()));
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<BufferedLogger> loggers = new ArrayList<>();
+            final List<Future<Boolean>> results = new ArrayList<>();
+            tasks.forEach(task -> {
+                final BufferedLogger logger = new BufferedLogger(config.logger());
+                loggers.add(logger);
+                results.add(executor.submit(() -> task.apply(logger)));
+            });
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).get();
+                loggers.get(i).flush();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted postprocessing " + description, ie);
+        } catch (ExecutionException ee) {
+            throw new IllegalStateException("Error postprocessing " + description, ee.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean process(Map<String, UmlDiagram> diagramsByHtmlPath, Path htmlPath, Logger logger) {
+        return process(new HtmlFile(config, htmlPath, logger), diagramsByHtmlPath.get(diagramCollector.htmlPath(htmlPath)));
+    }
+
+    private boolean process(HtmlFile htmlFile, UmlDiagram diagram) {
+        try {
+            return htmlFile.process(diagram);
+        } catch (RuntimeException failure) {
+            failures.add(new IllegalStateException(
+                    "Error postprocessing " + htmlFile.path + ": " + failure.getMessage(), failure));
+            return false;
+        }
+    }
+
 }
@@ -23,10 +23,30 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Inserts a diagram into a single HTML file.
+ * <p>
+ * For ASCII-compatible HTML encodings, the raw bytes of the HTML are scanned for the insertion markers and the diagram file name.
+ * Only the lines containing them are decoded, all other bytes are transferred to the new file unchanged.
+ * The new file is written next to the original and then moved in its place.
+ *
+ * @author Sjoerd Talsma
+ */
 final class Postprocessor implements Callable<Boolean> {
+    private static final String ASCII_PROBE = "\r\n\t !\"#$%&'()*+,-./0123456789:;<=>?@"
+            + "ABCDEFGHIJKLMNOPQRSTUVWXYZ[\\]^_`abcdefghijklmnopqrstuvwxyz{|}~";
+
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
 
     private final HtmlFile htmlFile;
     private final UmlDiagram umlDiagram;
@@ -41,46 +61,161 @@ final class Postprocessor implements Callable<Boolean> {
         this.diagramExtension = lastDot > 0 ? diagramFileName.substring(lastDot) : "";
     }
 
+    static boolean isAsciiCompatible(Charset charset) {
+        return Arrays.equals(ASCII_PROBE.getBytes(US_ASCII), ASCII_PROBE.getBytes(charset));
+    }
+
     @Override
     public Boolean call() throws IOException {
         synchronized (htmlFile) {
-            File tempFile = File.createTempFile(htmlFile.path.getFileName().toString(), ".tmp");
-            List<String> html = htmlFile.readLines();
-            boolean alreadyContainsDiagram = false;
-            final Inserter inserter = umlDiagram.newInserter(relativePath);
-            try (Writer writer = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(tempFile)), htmlFile.config.htmlCharset())) {
-                boolean written = false;
-                for (String line : html) {
-                    if (line.contains(diagramFileName)) {
-                        alreadyContainsDiagram = true;
-                        break;
+            final File tempFile = File.createTempFile(htmlFile.path.getFileName().toString(), ".tmp",
+                    htmlFile.path.toAbsolutePath().getParent().toFile());
+            boolean result = false;
+            try {
+                final Inserter inserter = umlDiagram.newInserter(relativePath);
+                final boolean spliced = isAsciiCompatible(htmlFile.config.htmlCharset())
+                        ? splice(inserter, tempFile) : rewriteAllLines(inserter, tempFile);
+                if (spliced && inserter.inserted) {
+                    htmlFile.replaceBy(tempFile);
+                    result = true;
+                }
+            } finally {
+                if (!result && tempFile.exists() && !tempFile.delete()) {
+                    throw new IllegalStateException("Couldn't delete " + tempFile + " after postprocessing!");
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Scans the raw HTML bytes for the insertion markers and the diagram file name.
+     * <p>
+     * Only lines containing one of the {@link Inserter#markers markers} or the diagram file name are decoded
+     * and processed; all other lines are copied as-is.
+     * Once the inserter is complete, the rest of the HTML is only scanned for the diagram file name:
+     * an HTML file mentioning the diagram anywhere already contains it and is left untouched.
+     * Lines are split on the {@code '\n'} byte, which is safe for ASCII-compatible encodings.
+     * Original line endings are preserved.
+     *
+     * @return {@code false} if the HTML already contains the diagram, otherwise {@code true}.
+     */
+    private boolean splice(Inserter inserter, File tempFile) throws IOException {
+        final Charset charset = htmlFile.config.htmlCharset();
+        final byte[][] patterns = new byte[inserter.markers.length + 1][];
+        patterns[0] = diagramFileName.getBytes(charset);
+        for (int i = 0; i < inserter.markers.length; i++) patterns[i + 1] = inserter.markers[i].getBytes(charset);
+        final byte[][] diagramFileNamePattern = {patterns[0]};
+
+        try (FileChannel source = FileChannel.open(htmlFile.path, StandardOpenOption.READ);
+             FileChannel target = new FileOutputStream(tempFile).getChannel()) {
+            final long size = source.size();
+            final ByteBuffer html = readBytes(source, size);
+            long copied = 0L;
+            int lineStart = 0;
+            while (lineStart < html.limit()) {
+                final byte[][] scanFor = inserter.isComplete() ? diagramFileNamePattern : patterns;
+                boolean matched = false;
+                int lineEnd = lineStart;
+                for (; lineEnd < html.limit() && html.get(lineEnd) != '\n'; lineEnd++) {
+                    matched = matched || startsWithAny(html, lineEnd, scanFor);
+                }
+                final int nextLine = Math.min(lineEnd + 1, html.limit());
+                if (matched) {
+                    final int contentEnd = lineEnd > lineStart && html.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                    final String content = decode(html, lineStart, contentEnd, charset);
+                    if (content.contains(diagramFileName)) return false;
+                    final String processed = inserter.process(content);
+                    if (!processed.equals(content)) {
+                        transfer(source, copied, lineStart, target);
+                        target.write(ByteBuffer.wrap(processed.getBytes(charset)));
+                        copied = contentEnd;
                     }
-                    if (written) writer.write(System.lineSeparator());
-                    writer.write(inserter.process(line));
-                    written = true;
                 }
+                lineStart = nextLine;
             }
+            transfer(source, copied, size, target);
+        }
+        return true;
+    }
 
-            boolean result = false;
-            if (!alreadyContainsDiagram && inserter.inserted) {
-                htmlFile.replaceBy(tempFile);
-                result = true;
-            } else if (!tempFile.delete()) {
-                throw new IllegalStateException("Couldn't delete " + tempFile + " after postprocessing!");
+    /**
+     * Reads the HTML file into a heap buffer in chunks.
+     * <p>
+     * The file is deliberately not memory-mapped: a live mapping prevents replacing the file on Windows.
+     */
+    private static ByteBuffer readBytes(FileChannel source, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IllegalStateException("HTML file too large: " + size + " bytes.");
+        final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            buffer.limit(Math.min(buffer.position() + READ_CHUNK_SIZE, buffer.capacity()));
+            if (source.read(buffer) < 0) break;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static boolean startsWithAny(ByteBuffer bytes, int index, byte[][] patterns) {
+        for (byte[] pattern : patterns) {
+            if (pattern.length > 0 && index + pattern.length <= bytes.limit()) {
+                int i = 0;
+                while (i < pattern.length && bytes.get(index + i) == pattern[i]) i++;
+                if (i == pattern.length) return true;
+            }
+        }
+        return false;
+    }
+
+    private static String decode(ByteBuffer bytes, int from, int to, Charset charset) {
+        final byte[] line = new byte[to - from];
+        for (int i = 0; i < line.length; i++) line[i] = bytes.get(from + i);
+        return new String(line, charset);
+    }
+
+    private static void transfer(FileChannel source, long from, long to, FileChannel target) throws IOException {
+        while (from < to) from += source.transferTo(from, to - from, target);
+    }
+
+    /**
+     * Fallback for encodings that are not ASCII-compatible: decodes and rewrites all HTML lines.
+     *
+     * @return {@code false} if the HTML already contains the diagram, otherwise {@code true}.
+     */
+    private boolean rewriteAllLines(Inserter inserter, File tempFile) throws IOException {
+        List<String> html = htmlFile.readLines();
+        try (Writer writer = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(tempFile)), htmlFile.config.htmlCharset())) {
+            boolean written = false;
+            for (String line : html) {
+                if (line.contains(diagramFileName)) return false;
+                if (written) writer.write(System.lineSeparator());
+                writer.write(inserter.process(line));
+                written = true;
             }
-            return result;
         }
+        return true;
     }
 
     static abstract class Inserter {
         protected boolean inserted = false;
         protected String relativePath;
+        /**
+         * The ASCII markers in the HTML the inserter looks for; lines without them are never changed.
+         */
+        final String[] markers;
 
-        protected Inserter(String relativePath) {
+        protected Inserter(String relativePath, String... markers) {
             this.relativePath = relativePath;
+            this.markers = markers;
         }
 
         abstract String process(String line);
+
+        /**
+         * @return Whether the inserter is done, i.e. the remaining lines will not be changed anymore.
+         */
+        boolean isComplete() {
+            return inserted;
+        }
     }
 
 }
@@ -15,17 +15,16 @@
  */
 package nl.talsmasoftware.umldoclet.html;
 
-import nl.talsmasoftware.umldoclet.util.FileUtils;
+import nl.talsmasoftware.umldoclet.util.RelativePaths;
 
 import java.io.File;
-import java.util.Optional;
 
 /**
  * Abstraction for a generated class diagram file.
  * <p>
- * The {@link #createPostprocessor(HtmlFile)} method determines whether
- * a found {@code HTML} file corresponds to this class diagram
- * and if so, returns a postprocessor for it.
+ * The {@link #htmlPath()} method determines which
+ * {@code HTML} file corresponds to this class diagram
+ * and {@link #newPostprocessor(HtmlFile)} returns a postprocessor for it.
  * <p>
  * Furthermore, this class 'knows' where (in the HTML) to insert the
  * UML diagram and how to do it. The {@link #newInserter(String)} method
@@ -36,32 +35,31 @@ import java.util.Optional;
 final class UmlClassDiagram extends UmlDiagram {
 
     private final File basedir, diagramFile;
-    private final String extension, pathToCompare;
+    private final String extension, htmlPath;
 
-    UmlClassDiagram(File basedir, File diagramFile, boolean hasImagesDirectory) {
+    UmlClassDiagram(File basedir, File diagramFile, boolean hasImagesDirectory, RelativePaths relativePaths) {
         this.basedir = basedir;
         this.diagramFile = diagramFile;
         final String fileName = diagramFile.getName();
         int dotIdx = fileName.lastIndexOf('.');
         this.extension = fileName.substring(dotIdx);
+        final String pathToCompare;
         if (hasImagesDirectory) {
-            this.pathToCompare = fileName.substring(0, dotIdx).replace('.', '/') + extension;
+            pathToCompare = fileName;
         } else {
-            this.pathToCompare = FileUtils.relativePath(this.basedir, this.diagramFile);
+            pathToCompare = relativePaths.relativePath(this.basedir, this.diagramFile);
         }
+        this.htmlPath = pathToCompare.substring(0, pathToCompare.length() - extension.length()) + ".html";
     }
 
-    private String changeHtmlFileNameExtension(Object htmlFileName) {
-        return htmlFileName.toString().replaceFirst("\\.html$", extension);
+    @Override
+    String htmlPath() {
+        return htmlPath;
     }
 
     @Override
-    Optional<Postprocessor> createPostprocessor(HtmlFile html) {
-        File htmlFile = html.path.toFile();
-        if (pathToCompare.equals(changeHtmlFileNameExtension(FileUtils.relativePath(basedir, htmlFile)))) {
-            return Optional.of(new Postprocessor(html, this, FileUtils.relativePath(htmlFile, diagramFile)));
-        }
-        return Optional.empty();
+    Postprocessor newPostprocessor(HtmlFile html) {
+        return new Postprocessor(html, this, html.config.relativePaths().relativePath(html.path.toAbsolutePath().getParent().toFile(), diagramFile));
     }
 
     @Override
@@ -70,10 +68,11 @@ final class UmlClassDiagram extends UmlDiagram {
     }
 
     private final class Inserter extends Postprocessor.Inserter {
+        private static final String SUMMARY_DIV = "<div class=\"summary\"";
         private boolean clearRightAdded = false;
 
         private Inserter(String relativePath) {
-            super(relativePath);
+            super(relativePath, "<hr>", SUMMARY_DIV);
         }
 
         /**
@@ -102,6 +101,11 @@ final class UmlClassDiagram extends UmlDiagram {
             return line;
         }
 
+        @Override
+        boolean isComplete() {
+            return inserted && clearRightAdded;
+        }
+
         /**
          * @return The {@code <img>} tag for this diagram including styling,
          * or an {@code <object>} tag for {@code SVG} diagrams to enable their links.
@@ -123,10 +127,9 @@ final class UmlClassDiagram extends UmlDiagram {
          * @return The modified line with the added style or {@code null} if the line was not the right place to do so.
          */
         private String addClearRightStyle(String line) {
-            final String summaryDiv = "<div class=\"summary\"";
-            int idx = line.indexOf(summaryDiv);
+            int idx = line.indexOf(SUMMARY_DIV);
             if (idx < 0) return null;
-            int ins = idx + summaryDiv.length();
+            int ins = idx + SUMMARY_DIV.length();
             line = line.substring(0, ins) + " style=\"clear: right;\"" + line.substring(ins);
             return line;
         }
@@ -15,22 +15,32 @@
  */
 package nl.talsmasoftware.umldoclet.html;
 
-import java.util.Optional;
-
 /**
  * @author Sjoerd Talsma
  */
 abstract class UmlDiagram {
 
     /**
-     * Creates a postprocessor <strong>if</strong> this diagram corresponds to the HTML file.
+     * The HTML file this diagram belongs in, relative to the destination directory.
+     * <p>
+     * This allows HTML files to be matched to their diagram by a simple lookup.
+     * Diagrams in a separate images directory are named after their qualified type or package name,
+     * which does not tell packages apart from enclosing types.
+     * Their HTML path is therefore flattened into the same dot-separated name
+     * (see {@link DiagramCollector#htmlPath(java.nio.file.Path)}).
+     *
+     * @return The relative path of the HTML file, separated by forward slashes
+     * or flattened with dots if there is an images directory.
+     */
+    abstract String htmlPath();
+
+    /**
+     * Creates a postprocessor for an HTML file that is already known to correspond to this diagram.
      *
-     * @param htmlFile
-     * @return
+     * @param htmlFile The HTML file this diagram belongs in.
+     * @return The postprocessor to add this diagram to the HTML file.
      */
-    Optional<Postprocessor> createPostprocessor(HtmlFile htmlFile) {
-        return Optional.empty();
-    }
+    abstract Postprocessor newPostprocessor(HtmlFile htmlFile);
 
     public abstract Postprocessor.Inserter newInserter(String relativePathToDiagram);
 
@@ -15,10 +15,10 @@
  */
 package nl.talsmasoftware.umldoclet.html;
 
-import nl.talsmasoftware.umldoclet.util.FileUtils;
+import nl.talsmasoftware.umldoclet.util.RelativePaths;
 
 import java.io.File;
-import java.util.Optional;
+import java.util.regex.Pattern;
 
 /**
  * @author Sjoerd Talsma
@@ -26,32 +26,31 @@ import java.util.Optional;
 final class UmlPackageDiagram extends UmlDiagram {
 
     private final File basedir, diagramFile;
-    private final String extension, pathToCompare;
+    private final String extension, htmlPath;
 
-    UmlPackageDiagram(File basedir, File diagramFile, boolean hasImagesDirectory) {
+    UmlPackageDiagram(File basedir, File diagramFile, boolean hasImagesDirectory, RelativePaths relativePaths) {
         this.basedir = basedir;
         this.diagramFile = diagramFile;
         final String fileName = diagramFile.getName();
         int dotIdx = fileName.lastIndexOf('.');
         this.extension = fileName.substring(dotIdx);
+        final String pathToCompare;
         if (hasImagesDirectory) {
-            this.pathToCompare = fileName.substring(0, dotIdx).replace('.', '/') + extension;
+            pathToCompare = fileName;
         } else {
-            this.pathToCompare = FileUtils.relativePath(this.basedir, this.diagramFile);
+            pathToCompare = relativePaths.relativePath(this.basedir, this.diagramFile);
         }
+        this.htmlPath = pathToCompare.replaceFirst("package" + Pattern.quote(extension) + "$", "package-summary.html");
     }
 
-    private String changeHtmlFileNameToDiagram(String htmlFileName) {
-        return htmlFileName.replaceFirst("package-summary.html$", "package" + extension);
+    @Override
+    String htmlPath() {
+        return htmlPath;
     }
 
     @Override
-    Optional<Postprocessor> createPostprocessor(HtmlFile html) {
-        File htmlFile = html.path.toFile();
-        if (pathToCompare.equals(changeHtmlFileNameToDiagram(FileUtils.relativePath(basedir, htmlFile)))) {
-            return Optional.of(new Postprocessor(html, this, FileUtils.relativePath(htmlFile, diagramFile)));
-        }
-        return Optional.empty();
+    Postprocessor newPostprocessor(HtmlFile html) {
+        return new Postprocessor(html, this, html.config.relativePaths().relativePath(html.path.toAbsolutePath().getParent().toFile(), diagramFile));
     }
 
     @Override
@@ -63,7 +62,7 @@ final class UmlPackageDiagram extends UmlDiagram {
         private static final String CENTER_STYLE = " style=\"display:block;margin-left:auto;margin-right:auto;max-width:100%;\"";
 
         private Inserter(String relativePath) {
-            super(relativePath);
+            super(relativePath, "<table");
         }
 
         @Override
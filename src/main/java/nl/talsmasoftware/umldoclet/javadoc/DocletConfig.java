@@ -28,20 +28,27 @@ import nl.talsmasoftware.umldoclet.logging.Logger;
 import nl.talsmasoftware.umldoclet.logging.Message;
 import nl.talsmasoftware.umldoclet.rendering.indent.Indentation;
 import nl.talsmasoftware.umldoclet.uml.Visibility;
+import nl.talsmasoftware.umldoclet.util.RelativePaths;
 
+import java.io.File;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
@@ -67,6 +74,13 @@ public class DocletConfig implements Configuration {
      */
     boolean renderPumlFile = false;
 
+    /**
+     * Whether to skip packages and types that did not change since the previous run.
+     * <p>
+     * Set by option {@code -umlIncremental}, default is {@code false}.
+     */
+    boolean incremental = false;
+
     /**
      * Whether the doclet should run more quite (errors must still be displayed).
      * <p>
@@ -111,6 +125,15 @@ public class DocletConfig implements Configuration {
 
     List<ExternalLink> externalLinks = new ArrayList<>();
 
+    private final RelativePaths relativePaths = new RelativePaths();
+
+    /**
+     * The names of the documentation pages in the destination directory, per package directory.
+     * <p>
+     * Each package directory is listed once, the first time a page in it is resolved.
+     */
+    private final Map<File, Set<String>> documentationPages = new ConcurrentHashMap<>();
+
     private Indentation indentation = Indentation.DEFAULT;
 
     public DocletConfig(UMLDoclet doclet) {
@@ -167,6 +190,24 @@ public class DocletConfig implements Configuration {
         return excludedReferences;
     }
 
+    @Override
+    public RelativePaths relativePaths() {
+        return relativePaths;
+    }
+
+    @Override
+    public Optional<File> resolveDocumentationPage(String packageName, String type) {
+        final File directory = Paths.get(destinationDirectory(), packageName.replace('.', '/')).toFile();
+        final String page = type + ".html";
+        return documentationPages.computeIfAbsent(directory, DocletConfig::htmlFileNames).contains(page)
+                ? Optional.of(new File(directory, page)) : Optional.empty();
+    }
+
+    private static Set<String> htmlFileNames(File directory) {
+        final String[] names = directory.list((dir, name) -> name.endsWith(".html"));
+        return names == null ? emptySet() : new HashSet<>(asList(names));
+    }
+
     @Override
     public Optional<URI> resolveExternalLinkToType(String packageName, String type) {
         return externalLinks.stream()
@@ -192,6 +233,43 @@ public class DocletConfig implements Configuration {
         String directory = null;
         Collection<FileFormat> imageFormats = null;
 
+        /**
+         * Whether to add existing images to the documentation without generating diagrams.
+         * <p>
+         * Set by doclet option {@code -umlExistingImages}, default is {@code false}.
+         */
+        boolean existingImagesOnly = false;
+
+        /**
+         * Number of threads to render the images with.
+         * <p>
+         * Set by doclet option {@code -umlRenderThreads}, default is {@code 1} meaning rendering
+         * on the javadoc thread itself. A value of {@code 0} uses one thread per available processor.
+         */
+        int renderThreads = 1;
+
+        /**
+         * Number of threads to add existing images to their HTML files with.
+         * <p>
+         * Set by doclet option {@code -umlPostprocessThreads}, default is {@code 1} meaning postprocessing
+         * on the javadoc thread itself. A value of {@code 0} uses one thread per available processor.
+         */
+        int postprocessThreads = 1;
+
+        /**
+         * Directory where rendered images are cached.
+         * <p>
+         * Set by doclet option {@code -umlCacheDirectory}, default is {@code null} meaning no caching.
+         */
+        String cacheDirectory = null;
+
+        /**
+         * Maximum size of the image cache in megabytes.
+         * <p>
+         * Set by doclet option {@code -umlCacheSize}, default is {@code 100}.
+         */
+        long cacheSizeMegabytes = 100L;
+
         /**
          * Directory where UML images are generated.
          * <p>
@@ -233,6 +311,61 @@ public class DocletConfig implements Configuration {
         public Collection<FileFormat> formats() {
             return Optional.ofNullable(imageFormats).orElseGet(() -> singleton(SVG));
         }
+
+        @Override
+        public boolean existingImagesOnly() {
+            return existingImagesOnly;
+        }
+
+        void setRenderThreads(String threads) {
+            try {
+                int value = Integer.parseInt(requireNonNull(threads, "Render threads is <null>.").trim());
+                if (value < 0) throw new NumberFormatException("Negative number of render threads: " + value);
+                renderThreads = value;
+            } catch (RuntimeException invalid) {
+                logger().warn(Message.WARNING_INVALID_RENDER_THREADS, threads);
+            }
+        }
+
+        @Override
+        public int renderThreads() {
+            return renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        }
+
+        void setPostprocessThreads(String threads) {
+            try {
+                int value = Integer.parseInt(requireNonNull(threads, "Postprocess threads is <null>.").trim());
+                if (value < 0) throw new NumberFormatException("Negative number of postprocess threads: " + value);
+                postprocessThreads = value;
+            } catch (RuntimeException invalid) {
+                logger().warn(Message.WARNING_INVALID_POSTPROCESS_THREADS, threads);
+            }
+        }
+
+        @Override
+        public int postprocessThreads() {
+            return postprocessThreads > 0 ? postprocessThreads : Runtime.getRuntime().availableProcessors();
+        }
+
+        @Override
+        public Optional<String> cacheDirectory() {
+            return Optional.ofNullable(cacheDirectory);
+        }
+
+        void setCacheSize(String megabytes) {
+            try {
+                long value = Long.parseLong(requireNonNull(megabytes, "Cache size is <null>.").trim());
+                if (value < 0) throw new NumberFormatException("Negative cache size: " + value);
+                cacheSizeMegabytes = value;
+            } catch (RuntimeException invalid) {
+                logger().warn(Message.WARNING_INVALID_CACHE_SIZE, megabytes);
+            }
+        }
+
+        @Override
+        public long cacheSizeLimit() {
+            return cacheSizeMegabytes * 1024L * 1024L;
+        }
     }
 
     static final class FieldCfg implements FieldConfig {
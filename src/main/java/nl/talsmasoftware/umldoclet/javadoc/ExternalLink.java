@@ -100,4 +100,9 @@ final class ExternalLink {
         }
     }
 
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{docUri=" + docUri + ", packageListUri=" + packageListUri + '}';
+    }
+
 }
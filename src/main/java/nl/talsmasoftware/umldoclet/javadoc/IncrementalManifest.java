@@ -0,0 +1,313 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import jdk.javadoc.doclet.DocletEnvironment;
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.uml.Diagram;
+import nl.talsmasoftware.umldoclet.uml.Visibility;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+import static net.sourceforge.plantuml.version.Version.versionString;
+import static nl.talsmasoftware.umldoclet.logging.Message.DEBUG_SKIPPING_UNCHANGED_ELEMENT;
+import static nl.talsmasoftware.umldoclet.logging.Message.DOCLET_UML_FOOTER;
+import static nl.talsmasoftware.umldoclet.logging.Message.DOCLET_VERSION;
+import static nl.talsmasoftware.umldoclet.logging.Message.WARNING_CANNOT_WRITE_MANIFEST;
+import static nl.talsmasoftware.umldoclet.util.HashUtils.sha256Hex;
+
+/**
+ * Manifest of the packages and types that UML was generated for by a previous run of the doclet.
+ * <p>
+ * For each package and type the manifest contains a fingerprint of everything the {@link UMLFactory} reads
+ * to create its diagram: the members, supertypes, modifiers and deprecation of all types involved.
+ * The fingerprint of a type includes its direct supertypes and enclosing type, so changing a supertype
+ * also changes the fingerprint of its subtypes. Likewise, the fingerprint of a package includes the supertypes
+ * from other packages.
+ * <p>
+ * Besides the fingerprints, the manifest records the HTML file and diagram image generated for each element,
+ * so the diagrams of unchanged elements can be added to the regenerated HTML again.
+ * <p>
+ * The manifest is only used when the {@code "-umlIncremental"} option is specified.
+ * It is stored in the destination directory, so a clean destination directory always results in a full build.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class IncrementalManifest {
+    private static final String MANIFEST_FILE = ".umldoclet-manifest.properties";
+    private static final String CONFIGURATION_KEY = "configuration";
+    private static final String HTML_SUFFIX = "@html";
+    private static final String DIAGRAM_SUFFIX = "@diagram";
+
+    private final Configuration config;
+    private final Elements elements;
+    private final File manifestFile;
+    private final Properties previous = new Properties();
+    private final Properties current = new Properties();
+    private final Map<File, File> unchangedDiagrams = new LinkedHashMap<>();
+
+    private IncrementalManifest(Configuration config, DocletEnvironment env, List<ExternalLink> externalLinks, File manifestFile) {
+        this.config = requireNonNull(config, "Configuration is <null>.");
+        this.elements = requireNonNull(env, "Doclet environment is <null>.").getElementUtils();
+        this.manifestFile = manifestFile;
+        if (manifestFile != null) {
+            if (manifestFile.isFile()) try (InputStream in = new FileInputStream(manifestFile)) {
+                previous.load(in);
+            } catch (IOException | RuntimeException unreadable) {
+                previous.clear(); // Corrupt manifest; rebuild everything.
+            }
+            current.setProperty(CONFIGURATION_KEY, configurationFingerprint(env, externalLinks));
+            if (!current.getProperty(CONFIGURATION_KEY).equals(previous.getProperty(CONFIGURATION_KEY))) {
+                previous.clear();
+            }
+        }
+    }
+
+    /**
+     * Loads the manifest of the previous run.
+     * <p>
+     * If the doclet does not run incrementally, the returned manifest considers every element to be changed.
+     *
+     * @param config The configuration of the doclet.
+     * @param env    The doclet environment.
+     * @return The manifest of the previous run.
+     */
+    public static IncrementalManifest load(DocletConfig config, DocletEnvironment env) {
+        return new IncrementalManifest(config, env, config.externalLinks,
+                config.incremental ? new File(config.destinationDirectory(), MANIFEST_FILE) : null);
+    }
+
+    /**
+     * Determines whether the element changed since the previous run and records its current fingerprint.
+     * <p>
+     * An unchanged element whose recorded diagram image no longer exists is considered changed,
+     * so its diagram is rendered again.
+     *
+     * @param element The element to check.
+     * @return {@code true} if the UML for the element must be generated, {@code false} if it is unchanged.
+     */
+    public boolean isChanged(Element element) {
+        final String key = keyOf(element);
+        if (manifestFile == null || key == null) return true;
+        final String fingerprint = sha256Hex(element instanceof PackageElement
+                ? describePackage((PackageElement) element) : describeDiagramType((TypeElement) element));
+        current.setProperty(key, fingerprint);
+        if (!fingerprint.equals(previous.getProperty(key))) return true;
+
+        final String htmlPath = previous.getProperty(key + HTML_SUFFIX);
+        final String diagramPath = previous.getProperty(key + DIAGRAM_SUFFIX);
+        if (htmlPath != null && diagramPath != null) {
+            final Path destinationDir = Paths.get(config.destinationDirectory());
+            final File diagramFile = destinationDir.resolve(diagramPath).toFile();
+            if (!diagramFile.isFile()) return true; // The recorded image was deleted; render it again.
+            current.setProperty(key + HTML_SUFFIX, htmlPath);
+            current.setProperty(key + DIAGRAM_SUFFIX, diagramPath);
+            unchangedDiagrams.put(destinationDir.resolve(htmlPath).toFile(), diagramFile);
+        }
+        config.logger().debug(DEBUG_SKIPPING_UNCHANGED_ELEMENT, element);
+        return false;
+    }
+
+    /**
+     * Records the output files of the diagram generated for the element.
+     * <p>
+     * When the element is unchanged in the next run,
+     * the recorded diagram is added to the regenerated HTML without scanning the destination directory.
+     *
+     * @param element The element the diagram was generated for.
+     * @param diagram The generated diagram.
+     */
+    public void recordDiagram(Element element, Diagram diagram) {
+        final String key = keyOf(element);
+        if (manifestFile != null && key != null && !diagram.getDiagramFiles().isEmpty()) {
+            current.setProperty(key + HTML_SUFFIX, relativeToDestination(diagram.getHtmlFile()));
+            current.setProperty(key + DIAGRAM_SUFFIX, relativeToDestination(diagram.getDiagramFiles().get(0)));
+        }
+    }
+
+    /**
+     * The diagrams of unchanged elements that were generated by a previous run.
+     *
+     * @return The previously generated diagram images, mapped by the HTML file they belong in.
+     */
+    public Map<File, File> unchangedDiagrams() {
+        return unmodifiableMap(unchangedDiagrams);
+    }
+
+    private String relativeToDestination(File file) {
+        return Paths.get(config.destinationDirectory()).toAbsolutePath()
+                .relativize(file.toPath().toAbsolutePath()).normalize().toString();
+    }
+
+    /**
+     * Saves the fingerprints of all checked elements for the next run.
+     * <p>
+     * This should only be called after all changed elements were processed successfully.
+     */
+    public void save() {
+        if (manifestFile == null) return;
+        Path temp = null;
+        try {
+            Path directory = manifestFile.getAbsoluteFile().getParentFile().toPath();
+            temp = Files.createTempFile(directory, MANIFEST_FILE, ".tmp");
+            try (OutputStream out = new FileOutputStream(temp.toFile())) {
+                current.store(out, "UML doclet manifest");
+            }
+            try {
+                Files.move(temp, manifestFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException notSupported) {
+                Files.move(temp, manifestFile.toPath(), REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException saveFailure) {
+            config.logger().warn(WARNING_CANNOT_WRITE_MANIFEST, manifestFile, saveFailure.getMessage());
+            if (temp != null) temp.toFile().delete();
+        }
+    }
+
+    private static String keyOf(Element element) {
+        if (element instanceof PackageElement) {
+            return "package:" + ((PackageElement) element).getQualifiedName();
+        } else if (element instanceof TypeElement && (element.getKind().isClass() || element.getKind().isInterface())) {
+            return "type:" + ((TypeElement) element).getQualifiedName();
+        }
+        return null;
+    }
+
+    /**
+     * The configuration fingerprint also contains everything that diagrams link to:
+     * the external documentation and the packages and types that documentation pages are generated for.
+     * Adding or removing a documented type therefore regenerates all diagrams.
+     */
+    private String configurationFingerprint(DocletEnvironment env, List<ExternalLink> externalLinks) {
+        StringBuilder fingerprint = new StringBuilder(config.logger().localize(DOCLET_UML_FOOTER, DOCLET_VERSION, versionString()))
+                .append('\n').append(config.renderPumlFile())
+                .append('\n').append(config.images().directory().orElse(""))
+                .append('\n').append(config.images().formats())
+                .append('\n').append(config.excludedTypeReferences())
+                .append('\n').append(config.umlCharset())
+                .append('\n').append('[').append(config.indentation().increase()).append(']')
+                .append('\n').append(config.fields().typeDisplay())
+                .append('\n').append(config.methods().paramNames())
+                .append(' ').append(config.methods().paramTypes())
+                .append(' ').append(config.methods().returnType());
+        for (Visibility visibility : Visibility.values()) {
+            fingerprint.append('\n').append(visibility)
+                    .append(' ').append(config.fields().include(visibility))
+                    .append(' ').append(config.methods().include(visibility));
+        }
+        externalLinks.forEach(link -> fingerprint.append('\n').append(link));
+        env.getIncludedElements().stream()
+                .map(IncrementalManifest::keyOf).filter(Objects::nonNull)
+                .sorted()
+                .forEach(key -> fingerprint.append('\n').append(key));
+        return sha256Hex(fingerprint);
+    }
+
+    /**
+     * A class diagram shows the type itself, its direct supertypes and its enclosing type.
+     */
+    private String describeDiagramType(TypeElement type) {
+        StringBuilder description = describeType(new StringBuilder(), type);
+        describeTypeOf(description, type.getSuperclass());
+        type.getInterfaces().forEach(interfaceType -> describeTypeOf(description, interfaceType));
+        if (type.getEnclosingElement() instanceof TypeElement) {
+            describeType(description, (TypeElement) type.getEnclosingElement());
+        }
+        return description.toString();
+    }
+
+    /**
+     * A package diagram shows all (inner) types in the package and the interfaces they implement.
+     * <p>
+     * The supertypes from other packages are described as well, whether their members are shown or not.
+     * Changing a supertype in another package therefore regenerates the package diagram.
+     */
+    private String describePackage(PackageElement packageElement) {
+        StringBuilder description = new StringBuilder("package ").append(packageElement.getQualifiedName())
+                .append(elements.isDeprecated(packageElement) ? " @Deprecated" : "").append('\n');
+        final Set<TypeElement> foreignSupertypes = new LinkedHashSet<>();
+        packageElement.getEnclosedElements().stream()
+                .filter(TypeElement.class::isInstance).map(TypeElement.class::cast)
+                .flatMap(IncrementalManifest::innerTypes)
+                .forEach(type -> {
+                    describeType(description, type);
+                    Stream.concat(Stream.of(type.getSuperclass()), type.getInterfaces().stream())
+                            .map(IncrementalManifest::typeElementOf).filter(Objects::nonNull)
+                            .filter(supertype -> !packageElement.equals(elements.getPackageOf(supertype)))
+                            .forEach(foreignSupertypes::add);
+                });
+        foreignSupertypes.forEach(supertype -> describeType(description, supertype));
+        return description.toString();
+    }
+
+    private static TypeElement typeElementOf(TypeMirror typeMirror) {
+        return typeMirror instanceof DeclaredType && ((DeclaredType) typeMirror).asElement() instanceof TypeElement
+                ? (TypeElement) ((DeclaredType) typeMirror).asElement() : null;
+    }
+
+    private void describeTypeOf(StringBuilder description, TypeMirror typeMirror) {
+        final TypeElement type = typeElementOf(typeMirror);
+        if (type != null) describeType(description, type);
+    }
+
+    private StringBuilder describeType(StringBuilder description, TypeElement type) {
+        description.append(type.getKind()).append(' ').append(type.getModifiers()).append(' ')
+                .append(type.getQualifiedName())
+                .append(elements.isDeprecated(type) ? " @Deprecated" : "")
+                .append(" extends ").append(type.getSuperclass())
+                .append(" implements ").append(type.getInterfaces())
+                .append(" in ").append(type.getEnclosingElement()).append('\n');
+        type.getEnclosedElements().forEach(member -> description.append("  ")
+                .append(member.getKind()).append(' ').append(member.getModifiers()).append(' ')
+                .append(member).append(" : ").append(member.asType())
+                .append(elements.isDeprecated(member) ? " @Deprecated" : "").append('\n'));
+        return description;
+    }
+
+    private static Stream<TypeElement> innerTypes(TypeElement type) {
+        return Stream.concat(Stream.of(type), type.getEnclosedElements().stream()
+                .filter(TypeElement.class::isInstance).map(TypeElement.class::cast)
+                .flatMap(IncrementalManifest::innerTypes));
+    }
+
+}
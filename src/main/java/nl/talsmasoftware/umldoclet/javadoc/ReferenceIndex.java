@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import nl.talsmasoftware.umldoclet.uml.Reference;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Ordered collection of references, indexed by their canonical form and by the names of the referred types.
+ * <p>
+ * Equal references (i.e. with the same canonical form) are contained only once.
+ * Adding, merging, counting and removing references does not require scanning all references.
+ *
+ * @author Sjoerd Talsma
+ */
+final class ReferenceIndex {
+
+    private final Map<Reference, Reference> references = new LinkedHashMap<>();
+    private final Map<String, Set<Reference>> byTypeName = new HashMap<>();
+
+    /**
+     * Adds the reference, unless an equal reference was already added.
+     *
+     * @param reference The reference to add.
+     */
+    void add(Reference reference) {
+        if (!references.containsKey(reference)) put(reference);
+    }
+
+    /**
+     * Adds the reference, replacing an equal reference that was already added.
+     * The notes of the replaced reference are retained.
+     *
+     * @param reference The reference to merge.
+     */
+    void merge(Reference reference) {
+        Reference result = reference;
+        final Reference found = references.get(reference);
+        if (found != null) {
+            result = found;
+            remove(found);
+            for (String note : reference.notes) result = result.addNote(note);
+        }
+        put(result);
+    }
+
+    /**
+     * @param qualifiedName The qualified name of a type.
+     * @return The number of references from or to the type.
+     */
+    int countReferencesTo(String qualifiedName) {
+        return byTypeName.getOrDefault(qualifiedName, Collections.emptySet()).size();
+    }
+
+    /**
+     * Removes all references from or to the type.
+     *
+     * @param qualifiedName The qualified name of a type.
+     */
+    void removeReferencesTo(String qualifiedName) {
+        Collection<Reference> removed = byTypeName.remove(qualifiedName);
+        if (removed != null) removed.forEach(this::remove);
+    }
+
+    Stream<Reference> stream() {
+        return references.values().stream();
+    }
+
+    private void put(Reference reference) {
+        references.put(reference, reference);
+        byTypeName.computeIfAbsent(reference.from.qualifiedName, name -> new LinkedHashSet<>()).add(reference);
+        byTypeName.computeIfAbsent(reference.to.qualifiedName, name -> new LinkedHashSet<>()).add(reference);
+    }
+
+    private void remove(Reference reference) {
+        references.remove(reference);
+        Set<Reference> from = byTypeName.get(reference.from.qualifiedName);
+        if (from != null) from.remove(reference);
+        Set<Reference> to = byTypeName.get(reference.to.qualifiedName);
+        if (to != null) to.remove(reference);
+    }
+
+}
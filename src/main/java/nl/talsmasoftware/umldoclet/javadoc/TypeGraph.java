@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Graph of the types used in the documentation, shared during a doclet run.
+ * <p>
+ * The relationships of a type (superclass, interfaces, enclosing and inner types) and its members
+ * are determined only once and shared by all class and package diagrams.
+ * Types are only analyzed when they are first requested,
+ * so unchanged elements that are skipped by an incremental run are never analyzed.
+ * <p>
+ * This graph is not thread-safe.
+ *
+ * @author Sjoerd Talsma
+ */
+final class TypeGraph {
+
+    private final Map<TypeElement, Node> nodes = new HashMap<>();
+
+    /**
+     * @param type The type element to obtain the node for.
+     * @return The node in the graph for the type element.
+     */
+    Node nodeOf(TypeElement type) {
+        return nodes.computeIfAbsent(type, Node::new);
+    }
+
+    /**
+     * A single type in the graph with its adjacent types and its members, in declaration order.
+     */
+    static final class Node {
+        final TypeElement type;
+        /**
+         * The superclass, or {@code null} if the type has no superclass (interfaces and {@code java.lang.Object}).
+         */
+        final TypeMirror superclass;
+        final List<? extends TypeMirror> interfaces;
+        /**
+         * The enclosing type, or {@code null} for top-level types.
+         */
+        final TypeElement enclosingType;
+        final List<TypeElement> innerTypes;
+        final List<VariableElement> enumConstants, fields;
+        final List<ExecutableElement> constructors, methods;
+
+        private Node(TypeElement type) {
+            this.type = type;
+            this.superclass = TypeKind.NONE.equals(type.getSuperclass().getKind()) ? null : type.getSuperclass();
+            this.interfaces = unmodifiableList(type.getInterfaces());
+            final Element enclosing = type.getEnclosingElement();
+            this.enclosingType = enclosing instanceof TypeElement
+                    && (enclosing.getKind().isClass() || enclosing.getKind().isInterface())
+                    ? (TypeElement) enclosing : null;
+
+            final List<TypeElement> innerTypes = new ArrayList<>();
+            final List<VariableElement> enumConstants = new ArrayList<>(), fields = new ArrayList<>();
+            final List<ExecutableElement> constructors = new ArrayList<>(), methods = new ArrayList<>();
+            for (Element member : type.getEnclosedElements()) {
+                switch (member.getKind()) {
+                    case ENUM_CONSTANT:
+                        if (member instanceof VariableElement) enumConstants.add((VariableElement) member);
+                        break;
+                    case FIELD:
+                        if (member instanceof VariableElement) fields.add((VariableElement) member);
+                        break;
+                    case CONSTRUCTOR:
+                        if (member instanceof ExecutableElement) constructors.add((ExecutableElement) member);
+                        break;
+                    case METHOD:
+                        if (member instanceof ExecutableElement) methods.add((ExecutableElement) member);
+                        break;
+                    default:
+                        if (member instanceof TypeElement) innerTypes.add((TypeElement) member);
+                }
+            }
+            this.innerTypes = unmodifiableList(innerTypes);
+            this.enumConstants = unmodifiableList(enumConstants);
+            this.fields = unmodifiableList(fields);
+            this.constructors = unmodifiableList(constructors);
+            this.methods = unmodifiableList(methods);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import nl.talsmasoftware.umldoclet.uml.TypeName;
+
+import javax.lang.model.type.TypeMirror;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache of {@link TypeName type names} for the duration of a single doclet run.
+ * <p>
+ * Type mirrors are looked up by identity, because the compiler reuses the same instance for most type references.
+ * Identical type names resulting from different type mirrors (e.g. {@code List<String>} declared in two places)
+ * are {@link TypeName#intern(Map) interned}, so every distinct type name is kept only once.
+ * <p>
+ * This cache is not thread-safe.
+ *
+ * @author Sjoerd Talsma
+ */
+final class TypeNameCache implements Function<TypeMirror, TypeName> {
+
+    private final Map<TypeMirror, TypeName> typeNames = new IdentityHashMap<>();
+    private final Map<String, TypeName> interned = new HashMap<>();
+
+    @Override
+    public TypeName apply(TypeMirror type) {
+        TypeName typeName = typeNames.get(type);
+        if (typeName == null) {
+            typeName = TypeNameVisitor.INSTANCE.visit(type).intern(interned);
+            typeNames.put(type, typeName);
+        }
+        return typeName;
+    }
+
+}
@@ -36,10 +36,14 @@ import java.util.Set;
 
 /**
  * The UML type name implemented as {@link TypeVisitor}.
+ * <p>
+ * The visitor parameter contains the types that are currently being visited.
+ * It is created on demand for each call to {@link #visit(TypeMirror)},
+ * so the visitor itself is stateless and can be used from any thread.
  *
  * @author Sjoerd Talsma
  */
-final class TypeNameVisitor extends SimpleTypeVisitor9<TypeName, Void> {
+final class TypeNameVisitor extends SimpleTypeVisitor9<TypeName, Set<TypeMirror>> {
     private static final EnumSet<TypeKind> NO_KNOWN_TYPES = EnumSet.of(
             TypeKind.VOID, TypeKind.NONE, TypeKind.NULL, TypeKind.ERROR, TypeKind.OTHER);
 
@@ -48,45 +52,42 @@ final class TypeNameVisitor extends SimpleTypeVisitor9<TypeName, Void> {
     private TypeNameVisitor() {
     }
 
-    private static ThreadLocal<Set<TypeMirror>> VISITED = ThreadLocal.withInitial(
-            () -> Collections.newSetFromMap(new IdentityHashMap<>()));
-
     /**
      * Internal variant of {@link #visit(TypeMirror, Object)} for calls from inside this visitor itself.
      * <p>
      * Main purpose of this method is to limit the endless recursion that would result for types such as
      * {@code <T extends Comparable<T>>}
      *
-     * @param type      The type to visit.
-     * @param parameter The parameter (ignored by our visitor).
+     * @param type    The type to visit.
+     * @param visited The types currently being visited ({@code null} when called from the outermost type).
      * @return The type name
      */
-    private TypeName _visit(TypeMirror type, Void parameter) {
-        if (VISITED.get().add(type)) try {
-            return super.visit(type, parameter);
+    private TypeName _visit(TypeMirror type, Set<TypeMirror> visited) {
+        if (visited == null) visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (visited.add(type)) try {
+            return super.visit(type, visited);
         } finally {
-            VISITED.get().remove(type);
-            if (VISITED.get().isEmpty()) VISITED.remove();
+            visited.remove(type);
         }
-        return defaultAction(type, parameter);
+        return defaultAction(type, visited);
     }
 
     @Override
-    public TypeName visitPrimitive(PrimitiveType primitiveType, Void parameter) {
+    public TypeName visitPrimitive(PrimitiveType primitiveType, Set<TypeMirror> parameter) {
         // "byte", "char", "short", "int", "long", "float", "double", "boolean"
         final String primitive = primitiveType.getKind().name().toLowerCase();
         return new TypeName(primitive, primitive);
     }
 
     @Override
-    public TypeName visitNoType(NoType noType, Void parameter) {
+    public TypeName visitNoType(NoType noType, Set<TypeMirror> parameter) {
         // "void", "package", "module", "none"
         final String none = noType.getKind().name().toLowerCase();
         return new TypeName(none, none);
     }
 
     @Override
-    public TypeName visitDeclared(DeclaredType declaredType, Void parameter) {
+    public TypeName visitDeclared(DeclaredType declaredType, Set<TypeMirror> parameter) {
         final Element el = declaredType.asElement();
         final String simpleName = el.getSimpleName().toString();
         final String qualifiedName = el instanceof QualifiedNameable
@@ -98,12 +99,12 @@ final class TypeNameVisitor extends SimpleTypeVisitor9<TypeName, Void> {
     }
 
     @Override
-    public TypeName visitArray(ArrayType arrayType, Void parameter) {
+    public TypeName visitArray(ArrayType arrayType, Set<TypeMirror> parameter) {
         return TypeName.Array.of(_visit(arrayType.getComponentType(), parameter));
     }
 
     @Override
-    public TypeName visitTypeVariable(TypeVariable typeVariable, Void parameter) {
+    public TypeName visitTypeVariable(TypeVariable typeVariable, Set<TypeMirror> parameter) {
         TypeMirror upperBound = typeVariable.getUpperBound();
         if (upperBound != null && !NO_KNOWN_TYPES.contains(upperBound.getKind())) {
             // Fix for #64: Avoid redundant <T extends Object> (which is obviously true for all T's)
@@ -122,7 +123,7 @@ final class TypeNameVisitor extends SimpleTypeVisitor9<TypeName, Void> {
     }
 
     @Override
-    public TypeName visitWildcard(WildcardType wildcardType, Void parameter) {
+    public TypeName visitWildcard(WildcardType wildcardType, Set<TypeMirror> parameter) {
         TypeMirror extendsBound = wildcardType.getExtendsBound();
         if (extendsBound != null) return TypeName.Variable.extendsBound("?", _visit(extendsBound, parameter));
         TypeMirror superBound = wildcardType.getSuperBound();
@@ -132,7 +133,7 @@ final class TypeNameVisitor extends SimpleTypeVisitor9<TypeName, Void> {
     }
 
     @Override
-    protected TypeName defaultAction(TypeMirror tp, Void parameter) {
+    protected TypeName defaultAction(TypeMirror tp, Set<TypeMirror> parameter) {
         String qualified = tp.toString();
         int lt = qualified.lastIndexOf('<');
         int dot = (lt < 0 ? qualified : qualified.substring(0, lt)).lastIndexOf('.');
@@ -43,7 +43,7 @@ final class TypeNameWithCardinality {
     }
 
     /**
-     * Returns a function that applies the TypeNameVisitor, but also:
+     * Returns a function that obtains the type name, but also:
      * <ol>
      * <li>Checks if a type is an {@code Array}, {@code Iterable} or {@code Stream} to return the type argument with cardinality {@code "*"}</li>
      * <li>Checks if a type is a Java 8 or Guava {@code Optional} object to return the type argument with cardinality {@code "0..1"}</li>
@@ -51,20 +51,23 @@ final class TypeNameWithCardinality {
      * </ol>
      *
      * @param typeUtils The type utils to use for supertype introspection (required).
+     * @param typeNames The function to obtain type names with (required).
      * @return The function to return TypeName with cardinality for use in same-package references.
      */
-    static Function<TypeMirror, TypeNameWithCardinality> function(final Types typeUtils) {
+    static Function<TypeMirror, TypeNameWithCardinality> function(final Types typeUtils,
+                                                                  final Function<TypeMirror, TypeName> typeNames) {
         requireNonNull(typeUtils, "Type utils are <null>.");
+        requireNonNull(typeNames, "Type names function is <null>.");
         return type -> {
             if (type instanceof ArrayType) {
-                TypeName componentName = TypeNameVisitor.INSTANCE.visit(((ArrayType) type).getComponentType());
+                TypeName componentName = typeNames.apply(((ArrayType) type).getComponentType());
                 return new TypeNameWithCardinality(componentName, "*");
             } else if (type instanceof DeclaredType) {
                 Queue<TypeMirror> superTypes = new LinkedList<>(singleton(type));
                 Set<String> checkedTypes = new HashSet<>();
                 while (!superTypes.isEmpty()) {
                     TypeMirror superType = superTypes.poll();
-                    String qName = TypeNameVisitor.INSTANCE.visit(superType).qualified;
+                    String qName = typeNames.apply(superType).qualified;
                     if (checkedTypes.add(qName)) { // Don't reiterate
                         String cardinality = null;
                         if ("java.util.Optional".equals(qName) || "com.google.common.base.Optional".equals(qName)) {
@@ -78,7 +81,7 @@ final class TypeNameWithCardinality {
                                 .map(c -> superType instanceof DeclaredType ? (DeclaredType) superType : null)
                                 .map(DeclaredType::getTypeArguments)
                                 .map(args -> args.size() == 1 ? args.get(0) : null)
-                                .map(TypeNameVisitor.INSTANCE::visit);
+                                .map(typeNames);
                         if (typeArgument.isPresent()) {
                             return new TypeNameWithCardinality(typeArgument.get(), cardinality);
                         }
@@ -88,7 +91,7 @@ final class TypeNameWithCardinality {
                 }
             }
 
-            return new TypeNameWithCardinality(TypeNameVisitor.INSTANCE.visit(type), null);
+            return new TypeNameWithCardinality(typeNames.apply(type), null);
         };
     }
 }
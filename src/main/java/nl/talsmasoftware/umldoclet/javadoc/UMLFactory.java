@@ -26,16 +26,15 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
-import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toCollection;
-import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.groupingBy;
 import static javax.lang.model.element.ElementKind.ENUM;
 import static nl.talsmasoftware.umldoclet.uml.Reference.Side.from;
 import static nl.talsmasoftware.umldoclet.uml.Reference.Side.to;
@@ -47,23 +46,31 @@ import static nl.talsmasoftware.umldoclet.uml.Reference.Side.to;
  * This increases flexibility in supporting future language features however may introduce additional risk
  * with regard to unbounded recursion (see <a href="https://github.com/talsma-ict/umldoclet/issues/75">Issue 75</a>
  * for example).
+ * <p>
+ * TODO: The javac {@code Elements} and {@code Types} used here are not thread-safe, so all UML is built
+ * on the javadoc thread. Extracting an immutable, javac-independent snapshot of the included types first
+ * would allow building the class and package diagrams in parallel.
  *
  * @author Sjoerd Talsma
  */
 public class UMLFactory {
+    private static final Predicate<TypeMember> ABSTRACT_MEMBERS = member -> member.isAbstract;
 
     final Configuration config;
-    final ThreadLocal<UMLRoot> diagram = new ThreadLocal<>();
     private final DocletEnvironment env;
+    private final TypeGraph graph = new TypeGraph();
+    private final TypeNameCache typeNames = new TypeNameCache();
     private final Function<TypeMirror, TypeNameWithCardinality> typeNameWithCardinality;
+    private final Map<TypeElement, Type> populatedTypes = new HashMap<>();
 
     public UMLFactory(Configuration config, DocletEnvironment env) {
         this.config = requireNonNull(config, "Configuration is <null>.");
         this.env = requireNonNull(env, "Doclet environment is <null>.");
-        this.typeNameWithCardinality = TypeNameWithCardinality.function(env.getTypeUtils());
+        this.typeNameWithCardinality = TypeNameWithCardinality.function(env.getTypeUtils(), typeNames);
     }
 
     public UMLRoot createClassDiagram(TypeElement classElement) {
+        TypeGraph.Node node = graph.nodeOf(classElement);
         Type type = createAndPopulateType(null, classElement);
         ClassUml classUml = new ClassUml(config, type);
 
@@ -71,14 +78,13 @@ public class UMLFactory {
         Literal sep = Literal.NEWLINE;
 
         // Add superclass
-        if (!TypeKind.NONE.equals(classElement.getSuperclass().getKind())) {
-            String superclassName = TypeNameVisitor.INSTANCE.visit(classElement.getSuperclass()).qualified;
+        if (node.superclass != null) {
+            String superclassName = typeNames.apply(node.superclass).qualified;
             if (!config.excludedTypeReferences().contains(superclassName)) {
-                Element superclass = env.getTypeUtils().asElement(classElement.getSuperclass());
+                Element superclass = env.getTypeUtils().asElement(node.superclass);
                 if (superclass instanceof TypeElement) {
                     classUml.addChild(sep);
-                    Type superType = createAndPopulateType(null, (TypeElement) superclass);
-                    superType.removeChildren(child -> !(child instanceof TypeMember) || !((TypeMember) child).isAbstract);
+                    Type superType = populatedType((TypeElement) superclass, ABSTRACT_MEMBERS);
                     classUml.addChild(superType);
                     sep = Literal.EMPTY;
                 }
@@ -87,14 +93,13 @@ public class UMLFactory {
         }
 
         // Add interfaces
-        for (TypeMirror interfaceType : classElement.getInterfaces()) {
-            TypeName ifName = TypeNameVisitor.INSTANCE.visit(interfaceType);
+        for (TypeMirror interfaceType : node.interfaces) {
+            TypeName ifName = typeNames.apply(interfaceType);
             if (!config.excludedTypeReferences().contains(ifName.qualified)) {
                 Element implementedInterface = env.getTypeUtils().asElement(interfaceType);
                 if (implementedInterface instanceof TypeElement) {
                     classUml.addChild(sep);
-                    Type implementedType = createAndPopulateType(null, (TypeElement) implementedInterface);
-                    implementedType.removeChildren(child -> !(child instanceof TypeMember) || !((TypeMember) child).isAbstract);
+                    Type implementedType = populatedType((TypeElement) implementedInterface, ABSTRACT_MEMBERS);
                     classUml.addChild(implementedType);
                     sep = Literal.EMPTY;
                 }
@@ -103,27 +108,19 @@ public class UMLFactory {
         }
 
         // Add containing class reference
-        ElementKind enclosingKind = classElement.getEnclosingElement().getKind();
-        if (enclosingKind.isClass() || enclosingKind.isInterface()) {
-            String enclosingTypeName = TypeNameVisitor.INSTANCE.visit(classElement.getEnclosingElement().asType()).qualified;
+        if (node.enclosingType != null) {
+            String enclosingTypeName = typeNames.apply(node.enclosingType.asType()).qualified;
             if (!config.excludedTypeReferences().contains(enclosingTypeName)) {
-                Element enclosingElement = classElement.getEnclosingElement();
-                if (enclosingElement instanceof TypeElement) {
-                    classUml.addChild(sep);
-                    Type enclosingType = createAndPopulateType(null, (TypeElement) enclosingElement);
-                    enclosingType.removeChildren(child -> !(child instanceof TypeMember) || !((TypeMember) child).isAbstract);
-                    classUml.addChild(enclosingType);
-                    sep = Literal.EMPTY;
-                }
+                classUml.addChild(sep);
+                Type enclosingType = populatedType(node.enclosingType, ABSTRACT_MEMBERS);
+                classUml.addChild(enclosingType);
+                sep = Literal.EMPTY;
                 references.add(new Reference(from(type.name.qualified), "--+", to(enclosingTypeName)).canonical());
             }
         }
 
         // Add inner classes
-        classElement.getEnclosedElements().stream()
-                .filter(child -> child.getKind().isInterface() || child.getKind().isClass())
-                .filter(TypeElement.class::isInstance).map(TypeElement.class::cast)
-                .forEach(innerclassElem -> {
+        node.innerTypes.forEach(innerclassElem -> {
                     Type innerType = createType(null, innerclassElem);
                     classUml.addChild(innerType);
                     references.add(new Reference(from(type.name.qualified), "+--", to(innerType.name.qualified)).canonical());
@@ -139,8 +136,8 @@ public class UMLFactory {
 
     public UMLRoot createPackageDiagram(PackageElement packageElement) {
         PackageUml packageUml = new PackageUml(config, packageElement.getQualifiedName().toString());
-        Map<Namespace, Collection<Type>> foreignTypes = new LinkedHashMap<>();
-        List<Reference> references = new ArrayList<>();
+        Map<Namespace, Collection<TypeElement>> foreignTypes = new LinkedHashMap<>();
+        ReferenceIndex references = new ReferenceIndex();
         Namespace namespace = createPackage(packageUml, packageElement, foreignTypes, references);
         packageUml.addChild(namespace);
 
@@ -150,21 +147,23 @@ public class UMLFactory {
                 .filter(entry -> "java.lang".equals(entry.getKey().name) || "java.util".equals(entry.getKey().name))
                 .map(Map.Entry::getValue)
                 .forEach(types -> {
-                    for (Iterator<Type> it = types.iterator(); it.hasNext(); ) {
-                        Type type = it.next();
-                        if (references.stream().filter(ref -> ref.contains(type.name)).limit(3).count() > 2) {
-                            references.removeIf(ref -> ref.contains(type.name));
+                    for (Iterator<TypeElement> it = types.iterator(); it.hasNext(); ) {
+                        String qualifiedName = it.next().getQualifiedName().toString();
+                        if (references.countReferencesTo(qualifiedName) > 2) {
+                            references.removeReferencesTo(qualifiedName);
                             it.remove();
                         }
                     }
                 });
 
-        // Add all remaining foreign types to the diagram.
+        // Add all remaining foreign types to the diagram, only populating them now that they are needed.
         foreignTypes.entrySet().stream()
                 .filter(entry -> !entry.getValue().isEmpty())
                 .map(entry -> {
                     Namespace foreignPackage = entry.getKey();
-                    entry.getValue().forEach(foreignPackage::addChild);
+                    entry.getValue().stream()
+                            .map(foreignType -> populatedType(foreignType, member -> true))
+                            .forEach(foreignPackage::addChild);
                     return foreignPackage;
                 })
                 .flatMap(foreignPackage -> Stream.of(Literal.NEWLINE, foreignPackage))
@@ -177,7 +176,7 @@ public class UMLFactory {
     }
 
     Namespace packageOf(TypeElement typeElement) {
-        return new Namespace(diagram.get(), env.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString());
+        return new Namespace(null, env.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString());
     }
 
     Field createField(Type containingType, VariableElement variable) {
@@ -186,7 +185,7 @@ public class UMLFactory {
                 visibilityOf(modifiers),
                 modifiers.contains(Modifier.STATIC),
                 variable.getSimpleName().toString(),
-                TypeNameVisitor.INSTANCE.visit(variable.asType())
+                typeNames.apply(variable.asType())
         );
         if (env.getElementUtils().isDeprecated(variable)) field = field.deprecated();
         return field;
@@ -197,7 +196,7 @@ public class UMLFactory {
         Boolean varargs = null;
         for (VariableElement param : params) {
             if (varargs == null) result = result.varargs(varargs = isVarArgsMethod(param.getEnclosingElement()));
-            result = result.add(param.getSimpleName().toString(), TypeNameVisitor.INSTANCE.visit(param.asType()));
+            result = result.add(param.getSimpleName().toString(), typeNames.apply(param.asType()));
         }
         return result;
     }
@@ -228,7 +227,7 @@ public class UMLFactory {
                 modifiers.contains(Modifier.STATIC),
                 executableElement.getSimpleName().toString(),
                 createParameters(executableElement.getParameters()),
-                TypeNameVisitor.INSTANCE.visit(executableElement.getReturnType())
+                typeNames.apply(executableElement.getReturnType())
         );
         if (env.getElementUtils().isDeprecated(executableElement)) method = method.deprecated();
         return method;
@@ -251,13 +250,27 @@ public class UMLFactory {
     private Type createType(Namespace containingPackage, TypeElement type) {
         requireNonNull(type, "Type element is <null>.");
         if (containingPackage == null) containingPackage = packageOf(type);
-        return new Type(containingPackage, typeClassificationOf(type), TypeNameVisitor.INSTANCE.visit(type.asType()));
+        return new Type(containingPackage, typeClassificationOf(type), typeNames.apply(type.asType()));
     }
 
     private Type createAndPopulateType(Namespace containingPackage, TypeElement type) {
         return populateType(createType(containingPackage, type), type);
     }
 
+    /**
+     * Returns a populated type from another package or diagram.
+     * <p>
+     * Types are populated only once per run; every call returns a new copy with the selected members,
+     * so the returned type can be added to a diagram and modified freely.
+     *
+     * @param type            The type element to obtain the populated Type object for.
+     * @param memberCondition The condition for members to be included in the returned type.
+     * @return A new copy of the populated Type object.
+     */
+    private Type populatedType(TypeElement type, Predicate<? super TypeMember> memberCondition) {
+        return populatedTypes.computeIfAbsent(type, elem -> createAndPopulateType(null, elem)).copy(memberCondition);
+    }
+
     private static Type.Classification typeClassificationOf(TypeElement type) {
         ElementKind kind = type.getKind();
         Set<Modifier> modifiers = type.getModifiers();
@@ -270,32 +283,22 @@ public class UMLFactory {
 
     private Type populateType(Type type, TypeElement typeElement) {
         // Add the various parts of the class UML, order matters here, obviously!
-        List<? extends Element> enclosedElements = typeElement.getEnclosedElements();
-        if (Type.Classification.ENUM.equals(type.getClassfication())) enclosedElements.stream()
-                .filter(elem -> ElementKind.ENUM_CONSTANT.equals(elem.getKind()))
-                .filter(VariableElement.class::isInstance).map(VariableElement.class::cast)
+        TypeGraph.Node node = graph.nodeOf(typeElement);
+        if (Type.Classification.ENUM.equals(type.getClassfication())) node.enumConstants.stream()
                 .map(enumConst -> createField(type, enumConst))
                 .forEach(type::addChild);
 
-        enclosedElements.stream()
-                .filter(elem -> ElementKind.FIELD.equals(elem.getKind()))
-                .filter(VariableElement.class::isInstance).map(VariableElement.class::cast)
+        node.fields.stream()
                 .map(field -> createField(type, field))
                 .forEach(type::addChild);
 
-        List<ExecutableElement> constructors = enclosedElements.stream()
-                .filter(elem -> ElementKind.CONSTRUCTOR.equals(elem.getKind()))
-                .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
-                .collect(toList());
-        if (!isOnlyDefaultConstructor(constructors)) {
-            constructors.stream()
+        if (!isOnlyDefaultConstructor(node.constructors)) {
+            node.constructors.stream()
                     .map(constructor -> createConstructor(type, constructor))
                     .forEach(type::addChild);
         }
 
-        enclosedElements.stream()
-                .filter(elem -> ElementKind.METHOD.equals(elem.getKind()))
-                .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
+        node.methods.stream()
                 .filter(method -> !isMethodFromExcludedSuperclass(method))
                 .map(method -> createMethod(type, method))
                 .forEach(type::addChild);
@@ -307,30 +310,44 @@ public class UMLFactory {
         boolean result = false;
         Element containingClass = method.getEnclosingElement();
         if (containingClass.getKind().isClass() || containingClass.getKind().isInterface()) {
-            result = methodsFromExcludedSuperclasses().stream().anyMatch(
-                    m -> similarMethodSignatures(m, method)
+            result = methodsFromExcludedSuperclasses()
+                    .getOrDefault(signatureKey(method), Collections.emptyList()).stream()
+                    .anyMatch(m -> similarMethodSignatures(m, method)
                             && env.getTypeUtils().isAssignable(containingClass.asType(), m.getEnclosingElement().asType()));
         }
         result = result || isExcludedEnumMethod(method);
         return result;
     }
 
-    private Collection<ExecutableElement> _methodsFromExcludedSuperclasses = null;
+    private Map<String, List<ExecutableElement>> _methodsFromExcludedSuperclasses = null;
 
-    private Collection<ExecutableElement> methodsFromExcludedSuperclasses() {
+    /**
+     * @return The methods from excluded superclasses, indexed by their {@link #signatureKey(ExecutableElement) name and number of parameters}.
+     */
+    private Map<String, List<ExecutableElement>> methodsFromExcludedSuperclasses() {
         if (_methodsFromExcludedSuperclasses == null) {
             _methodsFromExcludedSuperclasses = config.excludedTypeReferences().stream()
                     .map(env.getElementUtils()::getTypeElement).filter(Objects::nonNull)
-                    .map(TypeElement::getEnclosedElements).flatMap(Collection::stream)
-                    .filter(elem -> ElementKind.METHOD.equals(elem.getKind()))
-                    .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
+                    .map(graph::nodeOf).flatMap(node -> node.methods.stream())
                     .filter(method -> !method.getModifiers().contains(Modifier.ABSTRACT))
                     .filter(method -> visibilityOf(method.getModifiers()).compareTo(Visibility.PRIVATE) > 0)
-                    .collect(toCollection(LinkedHashSet::new));
+                    .distinct()
+                    .collect(groupingBy(UMLFactory::signatureKey));
         }
         return _methodsFromExcludedSuperclasses;
     }
 
+    /**
+     * Methods can only have {@link #similarMethodSignatures(ExecutableElement, ExecutableElement) similar signatures}
+     * if they have the same name and number of parameters.
+     *
+     * @param method The method to return the signature key for.
+     * @return The key consisting of the method name and number of parameters.
+     */
+    private static String signatureKey(ExecutableElement method) {
+        return method.getSimpleName().toString() + '/' + method.getParameters().size();
+    }
+
     private boolean isExcludedEnumMethod(ExecutableElement method) {
         if (config.excludedTypeReferences().contains(Enum.class.getName())
                 && ElementKind.ENUM.equals(method.getEnclosingElement().getKind())
@@ -338,7 +355,7 @@ public class UMLFactory {
             if ("values".equals(method.getSimpleName().toString()) && method.getParameters().isEmpty()) {
                 return true;
             } else if ("valueOf".equals(method.getSimpleName().toString()) && method.getParameters().size() == 1) {
-                String paramType = TypeNameVisitor.INSTANCE.visit(method.getParameters().get(0).asType()).qualified;
+                String paramType = typeNames.apply(method.getParameters().get(0).asType()).qualified;
                 return String.class.getName().equals(paramType);
             }
         }
@@ -361,20 +378,20 @@ public class UMLFactory {
         return assignable1 || assignable2;
     }
 
-    private void addForeignType(Map<Namespace, Collection<Type>> foreignTypes, Element typeElement) {
+    private void addForeignType(Map<Namespace, Collection<TypeElement>> foreignTypes, Element typeElement) {
         if (foreignTypes != null && typeElement instanceof TypeElement) {
-            Type type = createAndPopulateType(null, (TypeElement) typeElement);
-            foreignTypes.computeIfAbsent(type.getNamespace(), (namespace) -> new LinkedHashSet<>()).add(type);
+            foreignTypes.computeIfAbsent(packageOf((TypeElement) typeElement), (namespace) -> new LinkedHashSet<>())
+                    .add((TypeElement) typeElement);
         }
     }
 
-    private Collection<Reference> findPackageReferences(
-            Namespace namespace, Map<Namespace, Collection<Type>> foreignTypes, TypeElement typeElement, Type type) {
-        Collection<Reference> references = new LinkedHashSet<>();
+    private void findPackageReferences(Namespace namespace, Map<Namespace, Collection<TypeElement>> foreignTypes,
+                                       TypeElement typeElement, Type type, ReferenceIndex references) {
+        final TypeGraph.Node node = graph.nodeOf(typeElement);
 
         // Superclass reference.
-        if (!TypeKind.NONE.equals(typeElement.getSuperclass().getKind())) {
-            String superclass = TypeNameVisitor.INSTANCE.visit(typeElement.getSuperclass()).qualified;
+        if (node.superclass != null) {
+            String superclass = typeNames.apply(node.superclass).qualified;
             if (!config.excludedTypeReferences().contains(superclass)) {
                 references.add(new Reference(
                         from(type.name.qualified), "--|>",
@@ -384,8 +401,8 @@ public class UMLFactory {
         }
 
         // Implemented interfaces.
-        typeElement.getInterfaces().forEach(interfaceType -> {
-            TypeName ifName = TypeNameVisitor.INSTANCE.visit(interfaceType);
+        node.interfaces.forEach(interfaceType -> {
+            TypeName ifName = typeNames.apply(interfaceType);
             if (!config.excludedTypeReferences().contains(ifName.qualified)) {
                 references.add(new Reference(
                         from(type.name.qualified), "..|>",
@@ -397,56 +414,56 @@ public class UMLFactory {
         });
 
         // Add reference to containing class from innner classes.
-        ElementKind enclosingKind = typeElement.getEnclosingElement().getKind();
-        if (enclosingKind.isClass() || enclosingKind.isInterface()) {
+        if (node.enclosingType != null) {
             references.add(new Reference(
-                    from(TypeNameVisitor.INSTANCE.visit(typeElement.getEnclosingElement().asType()).qualified),
+                    from(typeNames.apply(node.enclosingType.asType()).qualified),
                     "+--", to(type.name.qualified)));
         }
 
         // Add 'uses' references by replacing visible fields
-        typeElement.getEnclosedElements().stream()
-                .filter(member -> ElementKind.FIELD.equals(member.getKind()))
-                .filter(VariableElement.class::isInstance).map(VariableElement.class::cast)
+        final Set<String> replacedFields = new HashSet<>();
+        node.fields.stream()
                 .filter(field -> config.fields().include(visibilityOf(field.getModifiers())))
                 .forEach(field -> {
                     String fieldName = field.getSimpleName().toString();
                     TypeNameWithCardinality fieldType = typeNameWithCardinality.apply(field.asType());
                     if (namespace.contains(fieldType.typeName)) {
-                        addReference(references, new Reference(
+                        references.merge(new Reference(
                                 from(type.name.qualified),
                                 "-->",
                                 to(fieldType.typeName.qualified, fieldType.cardinality),
                                 fieldName));
-                        type.removeChildren(child -> child instanceof Field && ((Field) child).name.equals(fieldName));
+                        replacedFields.add(fieldName);
                     }
                 });
 
         // Add 'uses' reference by replacing visible getters/setters
-        typeElement.getEnclosedElements().stream()
-                .filter(member -> ElementKind.METHOD.equals(member.getKind()))
-                .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
+        final Set<String> replacedMethods = new HashSet<>();
+        node.methods.stream()
                 .filter(method -> config.methods().include(visibilityOf(method.getModifiers())))
                 .forEach(method -> {
                     String propertyName = propertyName(method);
                     if (propertyName != null) {
                         TypeNameWithCardinality returnType = typeNameWithCardinality.apply(propertyType(method));
                         if (namespace.contains(returnType.typeName)) {
-                            addReference(references, new Reference(
+                            references.merge(new Reference(
                                     from(type.name.qualified),
                                     "-->",
                                     to(returnType.typeName.qualified, returnType.cardinality),
                                     propertyName));
-                            type.removeChildren(child -> child instanceof Method
-                                    && ((Method) child).name.equals(method.getSimpleName().toString()));
+                            replacedMethods.add(method.getSimpleName().toString());
                         }
                     }
                 });
 
-        return references;
+        // Remove all replaced members in a single pass
+        if (!replacedFields.isEmpty() || !replacedMethods.isEmpty()) {
+            type.removeChildren(child -> child instanceof Field && replacedFields.contains(((Field) child).name)
+                    || child instanceof Method && replacedMethods.contains(((Method) child).name));
+        }
     }
 
-    private static String propertyName(ExecutableElement method) {
+    private String propertyName(ExecutableElement method) {
         String name = method.getSimpleName().toString();
         int params = method.getParameters().size();
         if (params == 0 && name.length() > 3 && name.startsWith("get")) {
@@ -476,40 +493,27 @@ public class UMLFactory {
         return element instanceof ExecutableElement && ((ExecutableElement) element).isVarArgs();
     }
 
-    private static boolean isBooleanPrimitive(TypeMirror type) {
-        return "boolean".equals(TypeNameVisitor.INSTANCE.visit(type).qualified);
+    private boolean isBooleanPrimitive(TypeMirror type) {
+        return "boolean".equals(typeNames.apply(type).qualified);
     }
 
-    private static void addReference(Collection<Reference> collection, Reference reference) {
-        Reference result = reference;
-        Optional<Reference> found = collection.stream().filter(reference::equals).findFirst();
-        if (found.isPresent()) {
-            result = found.get();
-            collection.remove(result);
-            for (String note : reference.notes) result = result.addNote(note);
-        }
-        collection.add(result);
-    }
-
-    private static Stream<TypeElement> innerTypes(TypeElement type) {
-        return Stream.concat(Stream.of(type), type.getEnclosedElements().stream()
-                .filter(TypeElement.class::isInstance).map(TypeElement.class::cast)
-                .flatMap(UMLFactory::innerTypes));
+    private Stream<TypeElement> innerTypes(TypeElement type) {
+        return Stream.concat(Stream.of(type), graph.nodeOf(type).innerTypes.stream().flatMap(this::innerTypes));
     }
 
     Namespace createPackage(UMLRoot diagram,
                             PackageElement packageElement,
-                            Map<Namespace, Collection<Type>> foreignTypes,
-                            List<Reference> references) {
+                            Map<Namespace, Collection<TypeElement>> foreignTypes,
+                            ReferenceIndex references) {
         Namespace pkg = new Namespace(diagram, packageElement.getQualifiedName().toString());
 
         // Add all types contained in this package.
         packageElement.getEnclosedElements().stream()
                 .filter(TypeElement.class::isInstance).map(TypeElement.class::cast)
-                .flatMap(UMLFactory::innerTypes)
+                .flatMap(this::innerTypes)
                 .map(typeElement -> {
                     Type type = createAndPopulateType(pkg, typeElement);
-                    references.addAll(findPackageReferences(pkg, foreignTypes, typeElement, type));
+                    findPackageReferences(pkg, foreignTypes, typeElement, type, references);
                     return type;
                 })
                 .flatMap(type -> Stream.of(Literal.NEWLINE, type))
@@ -71,6 +71,12 @@ final class UMLOptions {
             add(new Option("-umlImageDirectory", 1, Kind.STANDARD, (args) -> config.images.directory = args.get(0)));
             add(new Option("-umlImageFormat", 1, Kind.STANDARD, (args) -> config.images.addImageFormat(args.get(0))));
             add(new Option("-umlEncoding", 1, Kind.STANDARD, (args) -> config.umlencoding = args.get(0)));
+            add(new Option("-umlRenderThreads", 1, Kind.STANDARD, (args) -> config.images.setRenderThreads(args.get(0))));
+            add(new Option("-umlPostprocessThreads", 1, Kind.STANDARD, (args) -> config.images.setPostprocessThreads(args.get(0))));
+            add(new Option("-umlCacheDirectory", 1, Kind.STANDARD, (args) -> config.images.cacheDirectory = args.get(0)));
+            add(new Option("-umlIncremental", 0, Kind.STANDARD, (args) -> config.incremental = true));
+            add(new Option("-umlCacheSize", 1, Kind.STANDARD, (args) -> config.images.setCacheSize(args.get(0))));
+            add(new Option("-umlExistingImages", 0, Kind.STANDARD, (args) -> config.images.existingImagesOnly = true));
         }};
     }
 
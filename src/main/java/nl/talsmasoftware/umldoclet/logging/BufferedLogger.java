@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Logger that buffers its messages until they are {@link #flush() flushed} to a delegate logger.
+ * <p>
+ * This allows work on other threads to log, while the messages are still written in a predictable order.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class BufferedLogger implements Logger {
+
+    private final Logger delegate;
+    private final List<Consumer<Logger>> buffer = new ArrayList<>();
+
+    public BufferedLogger(Logger delegate) {
+        this.delegate = requireNonNull(delegate, "Delegate logger is <null>.");
+    }
+
+    @Override
+    public String localize(Message key, Object... args) {
+        return delegate.localize(key, args);
+    }
+
+    @Override
+    public synchronized void debug(Message key, Object... args) {
+        buffer.add(logger -> logger.debug(key, args));
+    }
+
+    @Override
+    public synchronized void info(Message key, Object... args) {
+        buffer.add(logger -> logger.info(key, args));
+    }
+
+    @Override
+    public synchronized void warn(Message key, Object... args) {
+        buffer.add(logger -> logger.warn(key, args));
+    }
+
+    @Override
+    public synchronized void error(Message key, Object... args) {
+        buffer.add(logger -> logger.error(key, args));
+    }
+
+    /**
+     * Writes all buffered messages to the delegate logger, in the order they were logged.
+     */
+    public synchronized void flush() {
+        buffer.forEach(message -> message.accept(delegate));
+        buffer.clear();
+    }
+
+}
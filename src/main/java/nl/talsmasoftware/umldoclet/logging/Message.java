@@ -39,10 +39,17 @@ public enum Message {
     DEBUG_SKIPPING_FILE,
     DEBUG_RENAMED_FILE_FROM,
     DEBUG_COPIED_FILE_FROM,
+    DEBUG_SKIPPING_UNCHANGED_ELEMENT,
     INFO_GENERATING_FILE,
     INFO_ADD_DIAGRAM_TO_FILE,
+    INFO_DIAGRAM_CACHE_STATISTICS,
     WARNING_UNRECOGNIZED_IMAGE_FORMAT,
     WARNING_CANNOT_READ_PACKAGE_LIST,
+    WARNING_INVALID_RENDER_THREADS,
+    WARNING_INVALID_POSTPROCESS_THREADS,
+    WARNING_INVALID_CACHE_SIZE,
+    WARNING_CANNOT_WRITE_DIAGRAM_CACHE,
+    WARNING_CANNOT_WRITE_MANIFEST,
     ERROR_UNANTICIPATED_ERROR_GENERATING_UML,
     ERROR_UNANTICIPATED_ERROR_GENERATING_DIAGRAMS,
     ERROR_UNANTICIPATED_ERROR_POSTPROCESSING_HTML;
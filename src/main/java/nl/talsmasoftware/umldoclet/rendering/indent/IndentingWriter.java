@@ -18,6 +18,7 @@ package nl.talsmasoftware.umldoclet.rendering.indent;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.lang.Character.isWhitespace;
@@ -122,23 +123,70 @@ public class IndentingWriter extends Writer {
 
     @Override
     public void write(char[] cbuf, int off, int len) throws IOException {
+        write(CharBuffer.wrap(cbuf), off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        write((CharSequence) str, off, len);
+    }
+
+    /**
+     * Writes the characters line by line.
+     * <p>
+     * Each line, including its terminating end-of-line characters, is appended to the delegate in one run.
+     * The indentation is only inserted where a new line starts.
+     *
+     * @param chars The characters to write.
+     * @param off   The offset of the first character to write.
+     * @param len   The number of characters to write.
+     * @throws IOException if the delegate could not be written to.
+     */
+    private void write(CharSequence chars, int off, int len) throws IOException {
         if (len > 0) {
-            char ch = cbuf[off];
+            final int end = off + len;
             synchronized (lock) {
-                if (addWhitespace.compareAndSet(true, false) && !isWhitespace(lastWritten) && !isWhitespace(ch)) {
+                char last = lastWritten;
+                if (addWhitespace.compareAndSet(true, false) && !isWhitespace(last) && !isWhitespace(chars.charAt(off))) {
                     delegate.append(' ');
-                    lastWritten = ' ';
+                    last = ' ';
                 }
-                for (int i = 0; i < len; i++) {
-                    ch = cbuf[off + i];
-                    if (isEol(lastWritten) && !isEol(ch)) delegate.append(indentation);
-                    delegate.append(ch);
-                    lastWritten = ch;
+                for (int start = off, lineEnd; start < end; start = lineEnd) {
+                    if (isEol(last) && !isEol(chars.charAt(start))) delegate.append(indentation);
+                    lineEnd = endOfLine(chars, start, end);
+                    appendRun(chars, start, lineEnd);
+                    last = chars.charAt(lineEnd - 1);
                 }
+                lastWritten = last;
             }
         }
     }
 
+    /**
+     * Finds the end of the line starting at {@code start}, including its end-of-line characters.
+     *
+     * @param chars The characters to scan.
+     * @param start The start of the line.
+     * @param end   The end of the characters to scan.
+     * @return The index directly after the line, or {@code end} if the line is not terminated.
+     */
+    private static int endOfLine(CharSequence chars, int start, int end) {
+        int pos = start;
+        while (pos < end && !isEol(chars.charAt(pos))) pos++;
+        while (pos < end && isEol(chars.charAt(pos))) pos++;
+        return pos;
+    }
+
+    private void appendRun(CharSequence chars, int start, int end) throws IOException {
+        if (delegate instanceof Writer && chars instanceof CharBuffer) {
+            ((Writer) delegate).write(((CharBuffer) chars).array(), start, end - start);
+        } else if (delegate instanceof Writer && chars instanceof String) {
+            ((Writer) delegate).write((String) chars, start, end - start);
+        } else {
+            delegate.append(chars, start, end);
+        }
+    }
+
     @Override
     public void flush() throws IOException {
         if (delegate instanceof Flushable) ((Flushable) delegate).flush();
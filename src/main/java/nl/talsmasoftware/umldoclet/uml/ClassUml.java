@@ -42,7 +42,7 @@ public class ClassUml extends UMLRoot {
 
     @Override
     public void addChild(UMLPart child) {
-        if (child instanceof Type) child = ((Type) child).addPackageToName();
+        if (child instanceof Type) ((Type) child).addPackageToName();
         super.addChild(child);
     }
 
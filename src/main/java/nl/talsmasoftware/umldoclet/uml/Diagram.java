@@ -15,70 +15,116 @@
  */
 package nl.talsmasoftware.umldoclet.uml;
 
+import net.sourceforge.plantuml.BlockUml;
 import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.FileFormatOption;
 import net.sourceforge.plantuml.SourceStringReader;
 import nl.talsmasoftware.umldoclet.configuration.Configuration;
-import nl.talsmasoftware.umldoclet.uml.UMLRoot;
-import nl.talsmasoftware.umldoclet.util.FileUtils;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
+import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
-import static nl.talsmasoftware.umldoclet.logging.Message.INFO_GENERATING_FILE;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static nl.talsmasoftware.umldoclet.util.FileUtils.ensureParentDir;
 import static nl.talsmasoftware.umldoclet.util.FileUtils.withoutExtension;
 
+/**
+ * Renders an UML diagram to image files in one or more {@link FileFormat file formats}.
+ * <p>
+ * The PlantUML source is {@link UMLRoot#plantumlSource(RenderContext) serialized} and parsed only once per diagram,
+ * every requested file format is exported from the same parsed PlantUML diagram.
+ * Without a separate image directory the images are placed next to the {@code .puml} file,
+ * so the PlantUML source of the {@code .puml} file is reused.
+ *
+ * @author Sjoerd Talsma
+ */
 public class Diagram {
 
     private final UMLRoot umlRoot;
-    private final FileFormat format;
-    private File diagramFile;
+    private final List<FileFormat> formats;
+    private List<File> diagramFiles;
 
-    public Diagram(UMLRoot plantUMLRoot, FileFormat format) {
+    public Diagram(UMLRoot plantUMLRoot, Collection<FileFormat> formats) {
         this.umlRoot = requireNonNull(plantUMLRoot, "PlantUML file is <null>.");
-        this.format = requireNonNull(format, "Diagram file format is <null>.");
+        this.formats = unmodifiableList(new ArrayList<>(requireNonNull(formats, "Diagram file formats are <null>.")));
+        if (this.formats.isEmpty()) throw new IllegalArgumentException("No diagram file formats specified.");
     }
 
-    private File getDiagramFile() {
-        if (diagramFile == null) {
+    /**
+     * @return The image files of this diagram, in the order of the configured file formats.
+     */
+    public List<File> getDiagramFiles() {
+        if (diagramFiles == null) {
             Configuration config = umlRoot.getConfiguration();
             File destinationDir = new File(config.destinationDirectory());
-            String relativePumlFile = FileUtils.relativePath(destinationDir, umlRoot.pumlFile());
-            diagramFile = config.images().directory()
+            String relativePumlFile = config.relativePaths().relativePath(destinationDir, umlRoot.pumlFile());
+            File baseFile = config.images().directory()
                     .map(imgDir -> new File(destinationDir, imgDir))
                     .map(imgDir -> new File(imgDir, relativePumlFile.replace('/', '.')))
-                    .map(file -> new File(file.getParent(), withDiagramExtension(file.getName())))
-                    .orElseGet(() -> new File(destinationDir, withDiagramExtension(relativePumlFile)));
+                    .orElseGet(() -> new File(destinationDir, relativePumlFile));
+            diagramFiles = unmodifiableList(formats.stream()
+                    .map(format -> new File(baseFile.getParent(), withoutExtension(baseFile.getName()) + format.getFileSuffix()))
+                    .collect(toList()));
         }
-        return diagramFile;
+        return diagramFiles;
     }
 
-    private String withDiagramExtension(String path) {
-        return withoutExtension(path) + format.getFileSuffix();
+    /**
+     * @return The HTML file generated by the Standard doclet that this diagram belongs in.
+     */
+    public File getHtmlFile() {
+        return umlRoot.htmlFile();
     }
 
-    public void render() {
-        File diagramFile = getDiagramFile();
-        try (OutputStream out = new FileOutputStream(ensureParentDir(diagramFile))) {
-            Link.linkFrom(diagramFile.getParent());
-            umlRoot.getConfiguration().logger().info(INFO_GENERATING_FILE, diagramFile);
+    /**
+     * Renders the image files of this diagram.
+     * <p>
+     * Images that are available from the cache are copied instead of rendered.
+     *
+     * @param cache The cache to restore images from and to store newly rendered images in.
+     */
+    public void render(DiagramCache cache) {
+        final List<File> diagramFiles = getDiagramFiles();
+        final RenderContext context = umlRoot.getConfiguration().images().directory().isPresent()
+                ? RenderContext.linkingFrom(diagramFiles.get(0).getParentFile())
+                : RenderContext.DEFAULT;
+        final String plantuml = umlRoot.plantumlSource(context);
+
+        SourceStringReader reader = null;
+        net.sourceforge.plantuml.core.Diagram parsed = null;
+        for (int i = 0; i < formats.size(); i++) {
+            final File diagramFile = ensureParentDir(diagramFiles.get(i));
+            final File cached = cache.cacheFile(plantuml, formats.get(i));
+            if (cache.restore(cached, diagramFile)) continue;
+            if (reader == null) {
+                reader = new SourceStringReader(plantuml);
+                final List<BlockUml> blocks = reader.getBlocks();
+                parsed = blocks.isEmpty() ? null : blocks.get(0).getDiagram();
+            }
+            final FileFormatOption format = new FileFormatOption(formats.get(i));
+            try (OutputStream out = new FileOutputStream(diagramFile)) {
 
-            new SourceStringReader(umlRoot.toString()).outputImage(out, new FileFormatOption(format));
+                if (parsed != null) parsed.exportDiagram(out, 0, format);
+                else reader.outputImage(out, format);
 
-        } catch (IOException ioe) {
-            throw new IllegalStateException("I/O error rendering " + this + ": " + ioe.getMessage(), ioe);
-        } finally {
-            Link.linkFrom(null);
+            } catch (IOException ioe) {
+                throw new IllegalStateException("I/O error rendering " + diagramFile + ": " + ioe.getMessage(), ioe);
+            }
+            cache.store(cached, diagramFile);
         }
     }
 
     @Override
     public String toString() {
-        return getDiagramFile().getPath();
+        return getDiagramFiles().stream().map(File::getPath).collect(joining(", "));
     }
 
 }
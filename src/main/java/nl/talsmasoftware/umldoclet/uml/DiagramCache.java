@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml;
+
+import net.sourceforge.plantuml.FileFormat;
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+import static net.sourceforge.plantuml.version.Version.versionString;
+import static nl.talsmasoftware.umldoclet.logging.Message.INFO_DIAGRAM_CACHE_STATISTICS;
+import static nl.talsmasoftware.umldoclet.logging.Message.WARNING_CANNOT_WRITE_DIAGRAM_CACHE;
+import static nl.talsmasoftware.umldoclet.util.HashUtils.sha256Hex;
+
+/**
+ * Persistent cache for rendered diagram images.
+ * <p>
+ * Images are stored in the {@code "-umlCacheDirectory"}, named after a hash of the PlantUML version,
+ * the image format and the PlantUML source. An unchanged diagram is therefore copied from the cache
+ * instead of being rendered again.
+ * <p>
+ * Every cache hit marks the cached image as recently used.
+ * When the cache is {@link #close() closed}, the least recently used images are evicted
+ * until the cache fits within the configured size limit.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class DiagramCache implements AutoCloseable {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Configuration config;
+    private final File directory;
+    private final AtomicInteger hits = new AtomicInteger(0);
+    private final AtomicInteger misses = new AtomicInteger(0);
+    private final long openedAt = System.currentTimeMillis();
+
+    private DiagramCache(Configuration config, File directory) {
+        this.config = requireNonNull(config, "Configuration is <null>.");
+        this.directory = directory;
+    }
+
+    /**
+     * Creates the diagram cache for the configuration.
+     * <p>
+     * If no cache directory is configured, the returned cache is disabled: it never contains any images.
+     *
+     * @param config The configuration of the doclet.
+     * @return The diagram cache.
+     */
+    public static DiagramCache forConfiguration(Configuration config) {
+        return new DiagramCache(config, config.images().cacheDirectory().map(File::new).orElse(null));
+    }
+
+    /**
+     * Determines the cache file for a diagram image.
+     * <p>
+     * The cache file is named after a hash of the PlantUML version, the image format and the PlantUML source.
+     * Determine it once per diagram and format, and use it both to {@link #restore(File, File) restore}
+     * and to {@link #store(File, File) store} the image.
+     *
+     * @param source The PlantUML source of the diagram.
+     * @param format The image format.
+     * @return The cache file for the image, or {@code null} if the cache is disabled.
+     */
+    File cacheFile(String source, FileFormat format) {
+        if (directory == null) return null;
+        return new File(directory, sha256Hex(versionString() + '\n' + format.name() + '\n' + source) + format.getFileSuffix());
+    }
+
+    /**
+     * Restores the cached image to the target file, if available.
+     *
+     * @param cached The {@link #cacheFile(String, FileFormat) cache file} of the image.
+     * @param target The image file to restore.
+     * @return {@code true} if the image was restored from the cache, otherwise {@code false}.
+     */
+    boolean restore(File cached, File target) {
+        if (cached == null) return false;
+        if (cached.isFile()) try {
+            Files.copy(cached.toPath(), target.toPath(), REPLACE_EXISTING);
+            cached.setLastModified(System.currentTimeMillis());
+            hits.incrementAndGet();
+            return true;
+        } catch (IOException | RuntimeException copyFailure) {
+            target.delete();
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Stores a rendered image in the cache.
+     * <p>
+     * The image is copied to a temporary file in the cache directory first and then moved into place,
+     * so a cached image is never observed partially written.
+     * Failure to store the image is reported as a warning, as it does not affect the generated documentation.
+     *
+     * @param cached The {@link #cacheFile(String, FileFormat) cache file} of the image.
+     * @param image  The rendered image file.
+     */
+    void store(File cached, File image) {
+        if (cached == null) return;
+        Path temp = null;
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+                throw new IOException("Could not create directory " + directory);
+            }
+            temp = Files.createTempFile(directory.toPath(), cached.getName(), TEMP_SUFFIX);
+            Files.copy(image.toPath(), temp, REPLACE_EXISTING);
+            try {
+                Files.move(temp, cached.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException notSupported) {
+                Files.move(temp, cached.toPath(), REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException storeFailure) {
+            config.logger().warn(WARNING_CANNOT_WRITE_DIAGRAM_CACHE, cached, storeFailure.getMessage());
+            if (temp != null) temp.toFile().delete();
+        }
+    }
+
+    /**
+     * Reports the cache statistics and evicts the least recently used images that exceed the cache size limit.
+     * <p>
+     * Temporary files that were left behind by an interrupted run before this cache was opened are deleted as well.
+     */
+    @Override
+    public void close() {
+        if (directory == null) return;
+        config.logger().info(INFO_DIAGRAM_CACHE_STATISTICS, hits.get(), misses.get());
+        final File[] files = Optional.ofNullable(directory.listFiles(File::isFile)).orElse(new File[0]);
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+        long size = 0L;
+        for (File file : files) {
+            if (!file.getName().endsWith(TEMP_SUFFIX)) {
+                size += file.length();
+                if (size > config.images().cacheSizeLimit()) file.delete();
+            } else if (file.lastModified() < openedAt) {
+                file.delete();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + Optional.ofNullable(directory).map(dir -> "{" + dir + '}').orElse("{disabled}");
+    }
+
+}
@@ -39,6 +39,11 @@ public class Field extends TypeMember {
         return new Field(containingType, visibility, isStatic, true, name, type);
     }
 
+    @Override
+    Field copyFor(Type containingType) {
+        return new Field(containingType, visibility, isStatic, isDeprecated, name, type);
+    }
+
     private boolean isEnumType() {
         return isStatic
                 && ENUM.equals(containingType.getClassfication())
@@ -51,8 +56,8 @@ public class Field extends TypeMember {
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
-        if (getConfiguration().fields().include(visibility)) super.writeTo(output);
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
+        if (getConfiguration().fields().include(visibility)) super.writeTo(output, context);
         return output;
     }
 
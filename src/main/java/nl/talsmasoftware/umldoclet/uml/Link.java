@@ -15,58 +15,39 @@
  */
 package nl.talsmasoftware.umldoclet.uml;
 
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
 import nl.talsmasoftware.umldoclet.rendering.indent.IndentingPrintWriter;
+import nl.talsmasoftware.umldoclet.util.RelativePaths;
 
 import java.io.File;
 import java.net.URI;
 import java.util.Optional;
 
-import static nl.talsmasoftware.umldoclet.util.FileUtils.relativePath;
-
 /**
  * Class for rendering links in the generated UML
  *
  * @author Sjoerd Talsma
  */
 public class Link extends UMLPart {
-    private static final ThreadLocal<String> LINK_FROM = new ThreadLocal<>();
 
+    private final File page;
     private final URI target;
 
-    private Link(UMLPart parent, URI target) {
+    private Link(UMLPart parent, File page, URI target) {
         super(parent);
+        this.page = page;
         this.target = target;
     }
 
     public static Link forType(Type type) {
-        final String destinationDirectory = type.getConfiguration().destinationDirectory();
+        final Configuration config = type.getConfiguration();
         final String packageName = type.getNamespace().name;
         final String nameInPackage = type.name.qualified.startsWith(packageName + ".")
                 ? type.name.qualified.substring(packageName.length() + 1) : type.name.simple;
 
-        Optional<URI> target = relativeHtmlFile(destinationDirectory, packageName, nameInPackage)
-                .or(() -> type.getConfiguration().resolveExternalLinkToType(packageName, nameInPackage));
-
-        return new Link(type, target.orElse(null));
-    }
-
-    private static Optional<URI> relativeHtmlFile(String destinationDirectory, String packageName, String nameInPackage) {
-        final String directory = destinationDirectory + "/" + packageName.replace('.', '/');
-        return Optional.of(new File(directory, nameInPackage + ".html"))
-                .filter(File::isFile)
-                .map(File::toURI);
-    }
-
-    /**
-     * Sets the base path where relative links should be rendered from.
-     * <p>
-     * This setting is configured on a per-thread basis.
-     *
-     * @param basePath The base path to define relative links from.
-     */
-    public static void linkFrom(String basePath) {
-        if (basePath == null) LINK_FROM.remove();
-        else LINK_FROM.set(basePath);
+        Optional<File> page = config.resolveDocumentationPage(packageName, nameInPackage);
+        return page.isPresent() ? new Link(type, page.get(), null)
+                : new Link(type, null, config.resolveExternalLinkToType(packageName, nameInPackage).orElse(null));
     }
 
     private Optional<Namespace> diagramPackage() {
@@ -79,27 +60,32 @@ public class Link extends UMLPart {
         return Optional.empty();
     }
 
-    private Optional<File> linkFromDir() {
-        final File fromDir = new File(
-                Optional.ofNullable(LINK_FROM.get())
-                        .or(() -> diagramPackage()
-                                .map(namespace -> namespace.name)
-                                .map(packageName -> packageName.replace('.', '/'))
-                                .map(packageDir -> getRootUMLPart().config.destinationDirectory() + "/" + packageDir))
-                        .orElseGet(() -> getRootUMLPart().config.destinationDirectory()));
-        return fromDir.isDirectory() ? Optional.of(fromDir) : Optional.empty();
+    private Optional<File> linkFromDir(RenderContext context) {
+        final RelativePaths relativePaths = getRootUMLPart().config.relativePaths();
+        final File fromDir = context.linkFrom()
+                .orElseGet(() -> new File(diagramPackage()
+                        .map(namespace -> namespace.name)
+                        .map(packageName -> packageName.replace('.', '/'))
+                        .map(packageDir -> getRootUMLPart().config.destinationDirectory() + "/" + packageDir)
+                        .orElseGet(() -> getRootUMLPart().config.destinationDirectory())));
+        return relativePaths.isDirectory(fromDir) ? Optional.of(fromDir) : Optional.empty();
+    }
+
+    private Optional<String> relativeTarget(RenderContext context) {
+        return Optional.ofNullable(page)
+                .or(() -> Optional.ofNullable(target).filter(uri -> "file".equals(uri.getScheme())).map(File::new))
+                .flatMap(targetFile -> linkFromDir(context)
+                        .map(dir -> getRootUMLPart().config.relativePaths().relativePath(dir, targetFile)));
     }
 
-    private Optional<String> relativeTarget() {
-        return Optional.ofNullable(target)
-                .filter(uri -> "file".equals(uri.getScheme())).map(File::new)
-                .flatMap(targetFile -> linkFromDir().map(dir -> relativePath(dir, targetFile)));
+    private String absoluteTarget() {
+        return (page != null ? page.toURI() : target).toASCIIString();
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
-        if (target != null) {
-            output.append("[[").append(relativeTarget().orElseGet(target::toASCIIString)).append("]]");
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
+        if (page != null || target != null) {
+            output.append("[[").append(relativeTarget(context).orElseGet(this::absoluteTarget)).append("]]");
         }
         return output;
     }
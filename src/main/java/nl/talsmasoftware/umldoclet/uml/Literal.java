@@ -42,7 +42,7 @@ public class Literal extends UMLPart {
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
         output.append(content);
         return output;
     }
@@ -53,8 +53,8 @@ public class Literal extends UMLPart {
         }
 
         @Override
-        public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
-            super.writeTo(output).newline();
+        public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
+            super.writeTo(output, context).newline();
             return output;
         }
 
@@ -47,13 +47,18 @@ public class Method extends TypeMember {
     }
 
     @Override
-    protected <IPW extends IndentingPrintWriter> IPW writeParametersTo(IPW output) {
-        return parameters.writeTo(output);
+    Method copyFor(Type containingType) {
+        return new Method(containingType, visibility, isAbstract, isStatic, isDeprecated, name, parameters.copy(), type);
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
-        if (getConfiguration().methods().include(visibility)) super.writeTo(output);
+    protected <IPW extends IndentingPrintWriter> IPW writeParametersTo(IPW output, RenderContext context) {
+        return parameters.writeTo(output, context);
+    }
+
+    @Override
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
+        if (getConfiguration().methods().include(visibility)) super.writeTo(output, context);
         return output;
     }
 
@@ -50,9 +50,9 @@ public class Namespace extends UMLPart implements Comparable<Namespace> {
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
         writeNameTo(output.append("namespace").whitespace()).append('{').newline();
-        writeChildrenTo(output);
+        writeChildrenTo(output, context);
         output.append('}').newline();
         return output;
     }
@@ -47,4 +47,9 @@ public class PackageUml extends UMLRoot {
         return pumlFile;
     }
 
+    @Override
+    public File htmlFile() {
+        return new File(pumlFile().getParentFile(), "package-summary.html");
+    }
+
 }
@@ -57,17 +57,23 @@ public class Parameters extends UMLPart implements Comparable<Parameters> {
         return this;
     }
 
+    Parameters copy() {
+        Parameters copy = new Parameters().varargs(varargs);
+        getChildren().forEach(param -> copy.add(((Parameter) param).name, ((Parameter) param).type));
+        return copy;
+    }
+
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
-        return writeChildrenTo(output);
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
+        return writeChildrenTo(output, context);
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeChildrenTo(IPW output) {
+    public <IPW extends IndentingPrintWriter> IPW writeChildrenTo(IPW output, RenderContext context) {
         output.append('(');
         String sep = "";
         for (UMLPart param : getChildren()) {
-            param.writeTo(output.append(sep));
+            param.writeTo(output.append(sep), context);
             sep = ", ";
         }
         output.append(')');
@@ -95,7 +101,7 @@ public class Parameters extends UMLPart implements Comparable<Parameters> {
         }
 
         @Override
-        public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
+        public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
             String sep = "";
             MethodConfig methodConfig = getConfiguration().methods();
             if (name != null && MethodConfig.ParamNames.BEFORE_TYPE.equals(methodConfig.paramNames())) {
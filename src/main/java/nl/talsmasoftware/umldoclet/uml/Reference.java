@@ -50,6 +50,12 @@ public class Reference extends UMLPart {
     public final String type;
     public final Collection<String> notes;
 
+    // Canonical form, determined once for efficient equality matching
+    private final boolean isInverse;
+    private final String canonicalType;
+    private final int hashCode;
+    private Reference canonical;
+
     public Reference(Side from, String type, Side to, String... notes) {
         this(from, type, to, notes != null && notes.length > 0 ? asList(notes) : null);
     }
@@ -67,6 +73,24 @@ public class Reference extends UMLPart {
         this.notes = notes.isEmpty() ? emptySet()
                 : notes.size() == 1 ? singleton(notes.iterator().next())
                 : unmodifiableCollection(notes);
+
+        this.isInverse = isInverseType(this.type);
+        this.canonicalType = isInverse ? reverseType() : this.type;
+        this.hashCode = Objects.hash(canonicalFrom(), canonicalType, canonicalTo());
+    }
+
+    private static boolean isInverseType(String type) {
+        return type.startsWith("<--") || type.startsWith("<..")
+                || type.endsWith("--|>") || type.endsWith("..|>")
+                || type.endsWith("--*") || type.endsWith("--o") || type.endsWith("--+");
+    }
+
+    private Side canonicalFrom() {
+        return isInverse ? to : from;
+    }
+
+    private Side canonicalTo() {
+        return isInverse ? from : to;
     }
 
     public boolean isSelfReference() {
@@ -93,13 +117,12 @@ public class Reference extends UMLPart {
      * @return The canonical type that can be used for equality matching.
      */
     public Reference canonical() {
-        return type.startsWith("<--") || type.startsWith("<..")
-                || type.endsWith("--|>") || type.endsWith("..|>")
-                || type.endsWith("--*") || type.endsWith("--o") || type.endsWith("--+")
-                ? inverse() : this;
+        if (!isInverse) return this;
+        if (canonical == null) canonical = inverse();
+        return canonical;
     }
 
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
         // Namespace aware compensation
         final Namespace namespace = getParent() instanceof PackageUml
                 ? new Namespace(getRootUMLPart(), ((PackageUml) getParent()).packageName) : null;
@@ -124,17 +147,24 @@ public class Reference extends UMLPart {
 
     @Override
     public int hashCode() {
-        final Reference ref = canonical();
-        return Objects.hash(ref.from, ref.type, ref.to);
+        return hashCode;
     }
 
+    /**
+     * Compares the canonical forms of both references, without creating them.
+     *
+     * @param other The object to compare with.
+     * @return Whether the other object is an equal reference.
+     */
     @Override
     public boolean equals(Object other) {
         if (this == other) return true;
         else if (!(other instanceof Reference)) return false;
-        final Reference t_c = this.canonical();
-        final Reference o_c = ((Reference) other).canonical();
-        return t_c.from.equals(o_c.from) && t_c.type.equals(o_c.type) && t_c.to.equals(o_c.to);
+        final Reference that = (Reference) other;
+        return this.hashCode == that.hashCode
+                && this.canonicalType.equals(that.canonicalType)
+                && this.canonicalFrom().equals(that.canonicalFrom())
+                && this.canonicalTo().equals(that.canonicalTo());
     }
 
     @Override
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml;
+
+import nl.talsmasoftware.umldoclet.rendering.indent.IndentingPrintWriter;
+
+import java.io.File;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable context for writing UML parts.
+ * <p>
+ * The context is passed explicitly through all
+ * {@link UMLPart#writeTo(IndentingPrintWriter, RenderContext) writeTo} calls,
+ * so writing UML does not depend on any thread-bound state.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class RenderContext {
+
+    /**
+     * The default context renders links relative to the package directory of the diagram.
+     */
+    public static final RenderContext DEFAULT = new RenderContext(null);
+
+    private final File linkFrom;
+
+    private RenderContext(File linkFrom) {
+        this.linkFrom = linkFrom;
+    }
+
+    /**
+     * Creates a context that renders links relative to the specified directory.
+     *
+     * @param directory The directory to define relative links from.
+     * @return The render context.
+     */
+    public static RenderContext linkingFrom(File directory) {
+        return new RenderContext(requireNonNull(directory, "Directory to link from is <null>."));
+    }
+
+    /**
+     * @return The directory to define relative links from, if explicitly specified.
+     */
+    public Optional<File> linkFrom() {
+        return Optional.ofNullable(linkFrom);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(linkFrom);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof RenderContext
+                && Objects.equals(linkFrom, ((RenderContext) other).linkFrom));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + linkFrom().map(dir -> "{linkFrom=" + dir + '}').orElse("");
+    }
+
+}
@@ -18,7 +18,7 @@ package nl.talsmasoftware.umldoclet.uml;
 import nl.talsmasoftware.umldoclet.configuration.TypeDisplay;
 import nl.talsmasoftware.umldoclet.rendering.indent.IndentingPrintWriter;
 
-import java.util.Collection;
+import java.util.function.Predicate;
 
 import static java.util.Objects.requireNonNull;
 
@@ -39,22 +39,14 @@ public class Type extends UMLPart implements Comparable<Type> {
     private final Namespace namespace;
     private final Classification classfication;
     public final TypeName name;
-    private final boolean isDeprecated, addPackageToName;
+    private boolean isDeprecated, addPackageToName;
     private Link link;
 
     public Type(Namespace namespace, Classification classification, TypeName name) {
-        this(namespace, classification, name, false, false, null);
-    }
-
-    private Type(Namespace namespace, Classification classification, TypeName name, boolean isDeprecated,
-                 boolean addPackageToName, Collection<? extends UMLPart> children) {
         super(namespace);
         this.namespace = requireNonNull(namespace, "Containing package is <null>.");
         this.classfication = requireNonNull(classification, "Type classification is <null>.");
         this.name = requireNonNull(name, "Type name is <null>.");
-        this.isDeprecated = isDeprecated;
-        this.addPackageToName = addPackageToName;
-        if (children != null) children.forEach(this::addChild);
     }
 
     private Link link() {
@@ -62,12 +54,44 @@ public class Type extends UMLPart implements Comparable<Type> {
         return link;
     }
 
+    /**
+     * Marks this type as deprecated.
+     *
+     * @return This type, for method chaining.
+     */
     public Type deprecated() {
-        return new Type(getNamespace(), classfication, name, true, addPackageToName, getChildren());
+        isDeprecated = true;
+        return this;
     }
 
+    /**
+     * Renders the package below the name of this type.
+     *
+     * @return This type, for method chaining.
+     */
     public Type addPackageToName() {
-        return new Type(getNamespace(), classfication, name, isDeprecated, true, getChildren());
+        addPackageToName = true;
+        return this;
+    }
+
+    /**
+     * Creates an unattached copy of this type in a new namespace, containing copies of the selected members.
+     * <p>
+     * Other children than {@link TypeMember members} are not copied.
+     *
+     * @param memberCondition The condition for members to be copied.
+     * @return The copy of this type.
+     */
+    public Type copy(Predicate<? super TypeMember> memberCondition) {
+        Type copy = new Type(new Namespace(null, namespace.name), classfication, name);
+        copy.isDeprecated = isDeprecated;
+        copy.addPackageToName = addPackageToName;
+        getChildren().stream()
+                .filter(TypeMember.class::isInstance).map(TypeMember.class::cast)
+                .filter(memberCondition)
+                .map(member -> member.copyFor(copy))
+                .forEach(copy::addChild);
+        return copy;
     }
 
     public Namespace getNamespace() {
@@ -96,21 +120,21 @@ public class Type extends UMLPart implements Comparable<Type> {
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
         // Namespace aware compensation
         final Namespace namespace = getParent() instanceof PackageUml
                 ? new Namespace(getRootUMLPart(), ((PackageUml) getParent()).packageName) : null;
         output.append(classfication.toUml()).whitespace();
         writeNameTo(output, namespace).whitespace();
         if (isDeprecated) output.append("<<deprecated>>").whitespace();
-        link().writeTo(output).whitespace();
-        writeChildrenTo(output).newline();
+        link().writeTo(output, context).whitespace();
+        writeChildrenTo(output, context).newline();
         return output;
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeChildrenTo(IPW output) {
-        if (!getChildren().isEmpty()) super.writeChildrenTo(output.append('{').newline()).append('}');
+    public <IPW extends IndentingPrintWriter> IPW writeChildrenTo(IPW output, RenderContext context) {
+        if (!getChildren().isEmpty()) super.writeChildrenTo(output.append('{').newline(), context).append('}');
         return output;
     }
 
@@ -48,23 +48,31 @@ public abstract class TypeMember extends UMLPart implements Comparable<TypeMembe
         this.type = type;
     }
 
+    /**
+     * Creates a copy of this member for another containing type.
+     *
+     * @param containingType The type containing the copy.
+     * @return The copy of this member.
+     */
+    abstract TypeMember copyFor(Type containingType);
+
     protected <IPW extends IndentingPrintWriter> IPW writeTypeTo(IPW output) {
         if (type != null) output.append(": ").append(type.toString());
         return output;
     }
 
-    protected <IPW extends IndentingPrintWriter> IPW writeParametersTo(IPW output) {
+    protected <IPW extends IndentingPrintWriter> IPW writeParametersTo(IPW output, RenderContext context) {
         return output;
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
         if (isAbstract) output.append("{abstract}").whitespace();
         if (isStatic) output.append("{static}").whitespace();
         output.append(visibility.toUml());
         if (isDeprecated) output.append("--").append(name).append("--");
         else output.append(name);
-        writeParametersTo(output);
+        writeParametersTo(output, context);
         writeTypeTo(output);
         output.newline();
         return output;
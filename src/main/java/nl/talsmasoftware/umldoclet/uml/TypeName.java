@@ -18,6 +18,7 @@ package nl.talsmasoftware.umldoclet.uml;
 import nl.talsmasoftware.umldoclet.configuration.TypeDisplay;
 
 import java.io.IOException;
+import java.util.Map;
 
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
@@ -48,6 +49,22 @@ public class TypeName implements Comparable<TypeName> {
         return generics.clone();
     }
 
+    /**
+     * Returns the pooled type name that is identical to this one, adding this type name to the pool if needed.
+     * <p>
+     * Type names are immutable, so identical type names can safely be shared.
+     * Two type names are identical if they are of the same kind and render the same in every {@link TypeDisplay},
+     * which is stricter than {@link #equals(Object) equality}.
+     *
+     * @param pool The pool of interned type names.
+     * @return The interned type name.
+     */
+    public TypeName intern(Map<String, TypeName> pool) {
+        return pool.computeIfAbsent(
+                getClass().getSimpleName() + ':' + simple + ':' + toUml(TypeDisplay.QUALIFIED_GENERICS, null),
+                key -> this);
+    }
+
     private static boolean isQualified(TypeDisplay display) {
         return display != null && display.name().startsWith("QUALIFIED");
     }
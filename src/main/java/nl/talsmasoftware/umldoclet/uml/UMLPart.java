@@ -82,21 +82,44 @@ public abstract class UMLPart implements IndentingRenderer {
         return parent == null ? Indentation.DEFAULT : parent.getIndentation();
     }
 
+    /**
+     * Writes this part to the output using the {@link RenderContext#DEFAULT default render context}.
+     *
+     * @param <IPW>  The subclass of indenting print writer being written to.
+     * @param output The output to render this part to.
+     * @return A reference to the output for method chaining purposes.
+     */
+    @Override
+    public final <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
+        return writeTo(output, RenderContext.DEFAULT);
+    }
+
+    /**
+     * Writes this part to the output within the specified render context.
+     *
+     * @param <IPW>   The subclass of indenting print writer being written to.
+     * @param output  The output to render this part to.
+     * @param context The context to render within.
+     * @return A reference to the output for method chaining purposes.
+     */
+    public abstract <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context);
+
     /**
      * Helper method to write all children to the specified output.
      * <p>
-     * By default children will be {@link #writeTo(IndentingPrintWriter) written}
+     * By default children will be {@link #writeTo(IndentingPrintWriter, RenderContext) written}
      * with increased indentation for legibility.
      *
-     * @param <IPW>  The subclass of indenting print writer being written to.
-     * @param output The output to write the children to.
+     * @param <IPW>   The subclass of indenting print writer being written to.
+     * @param output  The output to write the children to.
+     * @param context The context to render the children within.
      * @return A reference to the output for method chaining purposes.
      */
-    protected <IPW extends IndentingPrintWriter> IPW writeChildrenTo(IPW output) {
+    protected <IPW extends IndentingPrintWriter> IPW writeChildrenTo(IPW output, RenderContext context) {
         Collection<? extends UMLPart> children = getChildren();
         if (children != null && !children.isEmpty()) {
             IndentingPrintWriter indented = output.indent();
-            children.forEach(child -> child.writeTo(indented));
+            children.forEach(child -> child.writeTo(indented, context));
         }
         return output;
     }
@@ -19,12 +19,16 @@ import nl.talsmasoftware.umldoclet.configuration.Configuration;
 import nl.talsmasoftware.umldoclet.logging.Logger;
 import nl.talsmasoftware.umldoclet.rendering.indent.Indentation;
 import nl.talsmasoftware.umldoclet.rendering.indent.IndentingPrintWriter;
+import nl.talsmasoftware.umldoclet.rendering.writers.StringBufferingWriter;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Objects.requireNonNull;
 import static net.sourceforge.plantuml.version.Version.versionString;
@@ -32,6 +36,7 @@ import static nl.talsmasoftware.umldoclet.logging.Message.DOCLET_UML_FOOTER;
 import static nl.talsmasoftware.umldoclet.logging.Message.DOCLET_VERSION;
 import static nl.talsmasoftware.umldoclet.logging.Message.INFO_GENERATING_FILE;
 import static nl.talsmasoftware.umldoclet.util.FileUtils.ensureParentDir;
+import static nl.talsmasoftware.umldoclet.util.FileUtils.withoutExtension;
 
 /**
  * Renders a new UML diagram.
@@ -41,12 +46,16 @@ import static nl.talsmasoftware.umldoclet.util.FileUtils.ensureParentDir;
  * Subclasses of {@code UMLRoot} are responsible for adding appropriate child renderers.
  * <p>
  * The diagram is rendered to a {@code .puml} output file if the {@code -createPumlFiles} option is enabled.
+ * <p>
+ * The PlantUML source is serialized only once per {@link RenderContext} and shared
+ * between the {@code .puml} file and all rendered images.
  *
  * @author Sjoerd Talsma
  */
 public abstract class UMLRoot extends UMLPart {
 
     final Configuration config;
+    private final Map<RenderContext, String> plantumlSources = new ConcurrentHashMap<>();
 
     protected UMLRoot(Configuration config) {
         super(null);
@@ -65,6 +74,16 @@ public abstract class UMLRoot extends UMLPart {
      */
     public abstract File pumlFile();
 
+    /**
+     * This method determines the HTML file generated by the Standard doclet that this diagram belongs in.
+     *
+     * @return The HTML file documenting the subject of this diagram.
+     */
+    public File htmlFile() {
+        final File pumlFile = pumlFile();
+        return new File(pumlFile.getParentFile(), withoutExtension(pumlFile.getName()) + ".html");
+    }
+
     @Override
     public Configuration getConfiguration() {
         return config;
@@ -76,9 +95,9 @@ public abstract class UMLRoot extends UMLPart {
     }
 
     @Override
-    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
+    public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output, RenderContext context) {
         output.append("@startuml").newline().newline();
-        writeChildrenTo(output);
+        writeChildrenTo(output, context);
         writeFooterTo(output);
         output.newline().append("@enduml").newline();
         return output;
@@ -92,25 +111,49 @@ public abstract class UMLRoot extends UMLPart {
         return output;
     }
 
+    /**
+     * The PlantUML source of this diagram.
+     * <p>
+     * The source is serialized once per render context; subsequent calls return the same text.
+     * Therefore this method should only be called after the diagram is completely populated.
+     *
+     * @param context The context to render the diagram in.
+     * @return The PlantUML source of this diagram.
+     */
+    public String plantumlSource(RenderContext context) {
+        return plantumlSources.computeIfAbsent(requireNonNull(context, "Render context is <null>."),
+                ctx -> writeTo(IndentingPrintWriter.wrap(new StringWriter(), getIndentation()), ctx).toString());
+    }
+
     /**
      * Renders this diagram to a designated {@link #pumlFile() .puml file}.
+     * <p>
+     * The written source is retained as the {@link #plantumlSource(RenderContext) PlantUML source}
+     * for the {@link RenderContext#DEFAULT default render context}.
      */
     public void render() {
         if (config.renderPumlFile()) {
             final File pumlFile = pumlFile();
             final Logger logger = getConfiguration().logger();
-            try (IndentingPrintWriter writer = createPlantumlWriter(pumlFile)) {
+            final String source = plantumlSources.get(RenderContext.DEFAULT);
+            try (StringBufferingWriter buffer = createPlantumlWriter(pumlFile)) {
                 logger.info(INFO_GENERATING_FILE, pumlFile);
-                this.writeTo(IndentingPrintWriter.wrap(writer, getConfiguration().indentation()));
+                if (source != null) buffer.write(source);
+                else {
+                    this.writeTo(IndentingPrintWriter.wrap(buffer, getIndentation()), RenderContext.DEFAULT).flush();
+                    plantumlSources.putIfAbsent(RenderContext.DEFAULT, buffer.getBuffer().toString());
+                }
+            } catch (IOException ioe) {
+                throw new IllegalStateException("Could not write PlantUML file: " + pumlFile, ioe);
             }
         }
     }
 
-    private IndentingPrintWriter createPlantumlWriter(File pumlFile) {
+    private StringBufferingWriter createPlantumlWriter(File pumlFile) {
         try {
 
             Writer pumlWriter = new OutputStreamWriter(new FileOutputStream(ensureParentDir(pumlFile)), config.umlCharset());
-            return IndentingPrintWriter.wrap(pumlWriter, config.indentation());
+            return new StringBufferingWriter(pumlWriter);
 
         } catch (IOException ioe) {
             throw new IllegalStateException("Could not create writer to PlantUML file: " + pumlFile, ioe);
@@ -21,8 +21,10 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.regex.Pattern;
 
 import static java.util.Arrays.asList;
@@ -72,17 +74,47 @@ public final class FileUtils {
         }
     }
 
+    /**
+     * Returns the relative path from one path to another, using path arithmetic only.
+     * <p>
+     * Both paths must be absolute and normalized; the file system is not accessed.
+     * If the paths have different roots, the target path itself is returned.
+     *
+     * @param fromDirectory The source directory.
+     * @param to            The target path.
+     * @return The relative path from the source directory to the target, separated by forward slashes.
+     */
+    public static String relativePath(Path fromDirectory, Path to) {
+        if (!Objects.equals(fromDirectory.getRoot(), to.getRoot())) return to.toString().replace(File.separatorChar, '/');
+        final int fromCount = fromDirectory.getNameCount(), toCount = to.getNameCount();
+        int common = 0; // Skip the common base path
+        while (common < fromCount && common < toCount && fromDirectory.getName(common).equals(to.getName(common))) {
+            common++;
+        }
+
+        final StringBuilder result = new StringBuilder();
+        // Replace each remaining directory in 'from' by a preceding "../"
+        for (int i = common; i < fromCount; i++) result.append(result.length() > 0 ? "/.." : "..");
+        for (int i = common; i < toCount; i++) {
+            if (result.length() > 0) result.append('/');
+            result.append(to.getName(i));
+        }
+        return result.toString();
+    }
+
     /**
      * Ensure that the parent directory exists for the specified file.
      * <p>
      * This will attempt to create the parent directory if it does not exist yet.
+     * It is safe to call this method concurrently for files in the same directory.
      *
      * @param file The file verify directory existence for.
      * @return The specified file.
      * @throws IllegalStateException in case the parent directory did not yet exist and could not be created either.
      */
     public static File ensureParentDir(File file) {
-        if (file != null && !file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+        if (file != null && !file.getParentFile().isDirectory()
+                && !file.getParentFile().mkdirs() && !file.getParentFile().isDirectory()) {
             throw new IllegalStateException("Can't create directory \"" + file.getParent() + "\".");
         }
         return file;
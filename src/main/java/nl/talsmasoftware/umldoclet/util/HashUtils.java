@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility class for calculating content hashes.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class HashUtils {
+
+    private HashUtils() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Calculates the {@code SHA-256} hash of the UTF-8 encoded value.
+     *
+     * @param value The value to be hashed.
+     * @return The lowercase hexadecimal representation of the {@code SHA-256} hash.
+     */
+    public static String sha256Hex(CharSequence value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(2 * hash.length);
+            for (byte b : hash) hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException("SHA-256 message digest is not supported.", nsae);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Determines relative paths between files for the duration of a single doclet run.
+ * <p>
+ * Each existing directory is canonicalized only once.
+ * After that, relative paths are determined from the canonical path segments without accessing the file system.
+ * This class is safe to use from multiple threads.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class RelativePaths {
+
+    private final Map<File, Path> canonicalDirectories = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory The directory to check.
+     * @return Whether the directory exists.
+     */
+    public boolean isDirectory(File directory) {
+        return directory != null && (canonicalDirectories.containsKey(directory) || directory.isDirectory());
+    }
+
+    /**
+     * Returns the relative path from a directory to a file.
+     *
+     * @param fromDirectory The directory to determine the relative path from.
+     * @param to            The target file.
+     * @return The relative path from the directory to the target file, separated by forward slashes.
+     */
+    public String relativePath(File fromDirectory, File to) {
+        if (!isDirectory(requireNonNull(fromDirectory, "Directory is <null>."))) {
+            throw new IllegalArgumentException("Not a directory: " + fromDirectory);
+        }
+        final File target = requireNonNull(to, "Target file is <null>.").getAbsoluteFile();
+        final File targetDirectory = target.getParentFile();
+        return FileUtils.relativePath(canonical(fromDirectory),
+                targetDirectory == null ? target.toPath() : canonical(targetDirectory).resolve(target.getName()));
+    }
+
+    /**
+     * Canonicalizes the directory, only remembering the result for existing directories
+     * (that may not be created afterwards).
+     */
+    private Path canonical(File directory) {
+        Path canonical = canonicalDirectories.get(directory);
+        if (canonical == null) try {
+            canonical = directory.getCanonicalFile().toPath();
+            if (directory.isDirectory()) canonicalDirectories.put(directory, canonical);
+        } catch (IOException ioe) {
+            throw new IllegalStateException("I/O exception determining canonical path of \""
+                    + directory + "\": " + ioe.getMessage(), ioe);
+        }
+        return canonical;
+    }
+
+}
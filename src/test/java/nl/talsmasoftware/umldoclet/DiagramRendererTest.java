@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet;
+
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
+import nl.talsmasoftware.umldoclet.logging.TestLogger;
+import nl.talsmasoftware.umldoclet.uml.Diagram;
+import nl.talsmasoftware.umldoclet.uml.DiagramCache;
+import nl.talsmasoftware.umldoclet.uml.PackageUml;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static nl.talsmasoftware.umldoclet.logging.Message.INFO_ADD_DIAGRAM_TO_FILE;
+import static net.sourceforge.plantuml.FileFormat.SVG;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Sjoerd Talsma
+ */
+public class DiagramRendererTest {
+
+    private Configuration config;
+    private TestLogger logger;
+    private ImageConfig images;
+    private final List<Diagram> rendered = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        images = mock(ImageConfig.class);
+        when(images.cacheDirectory()).thenReturn(Optional.empty());
+        config = mock(Configuration.class);
+        when(config.images()).thenReturn(images);
+        logger = new TestLogger();
+        when(config.logger()).thenReturn(logger);
+    }
+
+    private Diagram failingDiagram(Error error) {
+        return new Diagram(new PackageUml(config, "a.b.c"), singleton(SVG)) {
+            @Override
+            public List<File> getDiagramFiles() {
+                return singletonList(new File("a/b/c/package.svg"));
+            }
+
+            @Override
+            public void render(DiagramCache cache) {
+                throw error;
+            }
+        };
+    }
+
+    private Diagram diagram(String name) {
+        return new Diagram(new PackageUml(config, name), singleton(SVG)) {
+            @Override
+            public List<File> getDiagramFiles() {
+                return singletonList(new File(name + ".svg"));
+            }
+
+            @Override
+            public File getHtmlFile() {
+                return new File(name + ".html");
+            }
+
+            @Override
+            public void render(DiagramCache cache) {
+            }
+        };
+    }
+
+    private void assertErrorIsRethrown(int renderThreads) {
+        when(images.renderThreads()).thenReturn(renderThreads);
+        final StackOverflowError error = new StackOverflowError("PlantUML layout");
+        try (DiagramRenderer renderer = new DiagramRenderer(config, (diagram, logger) -> rendered.add(diagram))) {
+            renderer.render(failingDiagram(error));
+            renderer.awaitCompletion();
+            fail("Error expected");
+        } catch (StackOverflowError expected) {
+            assertThat(expected, is(sameInstance(error)));
+        }
+        assertThat(rendered, is(empty()));
+    }
+
+    @Test
+    public void testErrorOnCallingThreadIsRethrown() {
+        assertErrorIsRethrown(1);
+    }
+
+    @Test
+    public void testErrorOnRenderThreadIsRethrown() {
+        assertErrorIsRethrown(2);
+    }
+
+    @Test
+    public void testMessagesFromRenderThreadsAreLoggedInSubmissionOrder() {
+        when(images.renderThreads()).thenReturn(4);
+        final Random random = new Random();
+        final List<Object> submitted = new ArrayList<>();
+        try (DiagramRenderer renderer = new DiagramRenderer(config, (diagram, diagramLogger) -> {
+            try {
+                Thread.sleep(random.nextInt(5));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            diagramLogger.info(INFO_ADD_DIAGRAM_TO_FILE, diagram.getHtmlFile());
+        })) {
+            for (int i = 0; i < 50; i++) {
+                Diagram diagram = diagram("diagram" + i);
+                submitted.add(diagram.getHtmlFile());
+                renderer.render(diagram);
+            }
+            renderer.awaitCompletion();
+        }
+
+        List<Object> logged = logger.logged.stream()
+                .filter(record -> INFO_ADD_DIAGRAM_TO_FILE.equals(record.message))
+                .map(record -> record.arguments.get(0))
+                .collect(toList());
+        assertThat(logged, is(equalTo(submitted)));
+    }
+
+}
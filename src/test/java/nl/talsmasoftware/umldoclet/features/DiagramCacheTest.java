@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.features;
+
+import nl.talsmasoftware.umldoclet.UMLDoclet;
+import nl.talsmasoftware.umldoclet.util.Testing;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.spi.ToolProvider;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Tests caching rendered diagram images ({@code -umlCacheDirectory} option).
+ *
+ * @author Sjoerd Talsma
+ */
+public class DiagramCacheTest {
+
+    static final File testoutput = Testing.deleteRecursive(new File("target/test-diagram-cache"));
+    static final File cacheDirectory = new File(testoutput, "cache");
+    static final String packageAsPath = DiagramCacheTest.class.getPackageName().replace('.', '/');
+    static final long EPOCH = 1000L * 1000L * 1000L * 1000L;
+
+    public static class Cached {
+    }
+
+    private int runJavadoc(File outputdir) {
+        return ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-d", outputdir.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet",
+                "-umlCacheDirectory", cacheDirectory.getPath(),
+                "src/test/java/" + packageAsPath + '/' + getClass().getSimpleName() + ".java"
+        );
+    }
+
+    private void assertImageExists(File outputdir, String name) {
+        File image = new File(outputdir, packageAsPath + '/' + name);
+        assertThat(image.getPath() + " exists and is a file?", image.isFile(), is(true));
+    }
+
+    @Test
+    public void testRenderFromCache() {
+        File first = new File(testoutput, "first");
+        assertThat("Javadoc result", runJavadoc(first), is(0));
+        assertThat("Cached images", cacheDirectory.listFiles(), is(not(emptyArray())));
+        int cachedImages = cacheDirectory.listFiles().length;
+
+        File second = new File(testoutput, "second");
+        assertThat("Javadoc result", runJavadoc(second), is(0));
+        assertImageExists(second, "package.svg");
+        assertImageExists(second, "DiagramCacheTest.svg");
+        assertImageExists(second, "DiagramCacheTest.Cached.svg");
+        assertThat("Cached images", cacheDirectory.listFiles(), is(arrayWithSize(cachedImages)));
+    }
+
+    @Test
+    public void testCacheSizeZeroEvictsAllImages() {
+        File outputdir = new File(testoutput, "evicted");
+        File evictingCache = new File(testoutput, "evicting-cache");
+        int result = ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-d", outputdir.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet",
+                "-umlCacheDirectory", evictingCache.getPath(),
+                "-umlCacheSize", "0",
+                "src/test/java/" + packageAsPath + '/' + getClass().getSimpleName() + ".java"
+        );
+
+        assertThat("Javadoc result", result, is(0));
+        assertImageExists(outputdir, "DiagramCacheTest.Cached.svg");
+        assertThat("Cached images", evictingCache.listFiles(), is(emptyArray()));
+    }
+
+    @Test
+    public void testStaleTemporaryFilesAreDeleted() {
+        File outputdir = new File(testoutput, "stale-temp");
+        File staleCache = new File(testoutput, "stale-cache");
+        File staleTempFile = Testing.write(new File(staleCache, "interrupted.svg1234.tmp"), "<svg");
+        staleTempFile.setLastModified(EPOCH);
+        int result = ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-d", outputdir.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet",
+                "-umlCacheDirectory", staleCache.getPath(),
+                "src/test/java/" + packageAsPath + '/' + getClass().getSimpleName() + ".java"
+        );
+
+        assertThat("Javadoc result", result, is(0));
+        assertThat("Stale temporary file exists?", staleTempFile.exists(), is(false));
+        assertThat("Cached images", staleCache.listFiles(), is(not(emptyArray())));
+    }
+
+}
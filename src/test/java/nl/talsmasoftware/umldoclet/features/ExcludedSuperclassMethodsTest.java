@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.features;
+
+import nl.talsmasoftware.umldoclet.UMLDoclet;
+import nl.talsmasoftware.umldoclet.util.Testing;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.spi.ToolProvider;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Tests that only the methods overriding an excluded superclass (such as {@code java.lang.Object}) are hidden,
+ * and not their overloads.
+ *
+ * @author Sjoerd Talsma
+ */
+public class ExcludedSuperclassMethodsTest {
+
+    static final File testoutput = Testing.deleteRecursive(new File("target/test-excluded-superclass-methods"));
+    static final String packageAsPath = ExcludedSuperclassMethodsTest.class.getPackageName().replace('.', '/');
+    static String uml;
+
+    public static class Overloads {
+        @Override
+        public boolean equals(Object other) {
+            return super.equals(other);
+        }
+
+        public boolean equals(Object first, Object second) {
+            return first == second;
+        }
+
+        @Override
+        public String toString() {
+            return super.toString();
+        }
+
+        public String toString(int indentation) {
+            return toString();
+        }
+
+        public void wait(String first, String second, String third) {
+        }
+
+        public void wait(String reason) {
+        }
+    }
+
+    @BeforeClass
+    public static void createJavadoc() {
+        assertThat("Javadoc result", ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-d", testoutput.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet",
+                "-createPumlFiles",
+                "src/test/java/" + packageAsPath + "/" + ExcludedSuperclassMethodsTest.class.getSimpleName() + ".java"
+        ), is(0));
+        uml = Testing.read(new File(testoutput, packageAsPath + "/ExcludedSuperclassMethodsTest.Overloads.puml"));
+    }
+
+    @Test
+    public void testOverriddenMethodsAreHidden() {
+        assertThat(uml, not(containsString("+equals(Object): boolean")));
+        assertThat(uml, not(containsString("+toString(): String")));
+    }
+
+    @Test
+    public void testOverloadsWithDifferentNumberOfParametersAreShown() {
+        assertThat(uml, containsString("+equals(Object, Object): boolean"));
+        assertThat(uml, containsString("+toString(int): String"));
+        assertThat(uml, containsString("+wait(String, String, String): void"));
+    }
+
+    @Test
+    public void testOverloadsWithDissimilarParametersAreShown() {
+        assertThat(uml, containsString("+wait(String): void"));
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.features;
+
+import nl.talsmasoftware.umldoclet.UMLDoclet;
+import nl.talsmasoftware.umldoclet.util.Testing;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.spi.ToolProvider;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Tests adding existing images to the documentation ({@code -umlExistingImages} option).
+ *
+ * @author Sjoerd Talsma
+ */
+public class ExistingImagesTest {
+
+    static final File testoutput = Testing.deleteRecursive(new File("target/test-existing-images"));
+    static final String packageAsPath = ExistingImagesTest.class.getPackageName().replace('.', '/');
+    static final long EPOCH = 1000L * 1000L * 1000L * 1000L;
+
+    public static class Existing {
+    }
+
+    private int runJavadoc(File outputdir, String... umlOptions) {
+        List<String> args = new ArrayList<>(asList(
+                "-d", outputdir.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet"));
+        args.addAll(asList(umlOptions));
+        args.add("src/test/java/" + packageAsPath + '/' + getClass().getSimpleName() + ".java");
+        return ToolProvider.findFirst("javadoc").get().run(System.out, System.err, args.toArray(new String[0]));
+    }
+
+    @Test
+    public void testExistingImagesAreAddedWithoutRendering() {
+        File outputdir = new File(testoutput, "existing");
+        assertThat("Javadoc result", runJavadoc(outputdir), is(0));
+        File image = new File(outputdir, packageAsPath + "/ExistingImagesTest.Existing.svg");
+        assertThat(image.getPath() + " exists and is a file?", image.isFile(), is(true));
+        image.setLastModified(EPOCH);
+
+        assertThat("Javadoc result", runJavadoc(outputdir, "-umlExistingImages"), is(0));
+        assertThat("Last modified of " + image, image.lastModified(), is(EPOCH));
+        assertThat(Testing.read(new File(outputdir, packageAsPath + "/ExistingImagesTest.Existing.html")),
+                containsString("ExistingImagesTest.Existing.svg"));
+    }
+
+    @Test
+    public void testExistingImagesInImageDirectoryAreAddedToNestedTypes() {
+        File outputdir = new File(testoutput, "image-directory");
+        assertThat("Javadoc result", runJavadoc(outputdir, "-umlImageDirectory", "images"), is(0));
+        File outerImage = new File(outputdir, "images/" + ExistingImagesTest.class.getName() + ".svg");
+        File innerImage = new File(outputdir, "images/" + Existing.class.getCanonicalName() + ".svg");
+        assertThat(innerImage.getPath() + " exists and is a file?", innerImage.isFile(), is(true));
+        outerImage.setLastModified(EPOCH);
+        innerImage.setLastModified(EPOCH);
+        File outerHtml = new File(outputdir, packageAsPath + "/ExistingImagesTest.html");
+        File innerHtml = new File(outputdir, packageAsPath + "/ExistingImagesTest.Existing.html");
+        outerHtml.delete();
+        innerHtml.delete();
+
+        assertThat("Javadoc result", runJavadoc(outputdir, "-umlImageDirectory", "images", "-umlExistingImages"), is(0));
+        assertThat("Last modified of " + innerImage, innerImage.lastModified(), is(EPOCH));
+        assertThat(Testing.read(outerHtml), containsString("images/" + ExistingImagesTest.class.getName() + ".svg"));
+        assertThat(Testing.read(innerHtml), containsString("images/" + Existing.class.getCanonicalName() + ".svg"));
+    }
+
+    @Test
+    public void testNoImagesAreGeneratedWithExistingImagesOption() {
+        File outputdir = new File(testoutput, "none-existing");
+        assertThat("Javadoc result", runJavadoc(outputdir, "-umlExistingImages"), is(0));
+        assertThat("Image exists?", new File(outputdir, packageAsPath + "/ExistingImagesTest.Existing.svg").exists(), is(false));
+        assertThat(Testing.read(new File(outputdir, packageAsPath + "/ExistingImagesTest.Existing.html")),
+                not(containsString("ExistingImagesTest.Existing.svg")));
+    }
+
+}
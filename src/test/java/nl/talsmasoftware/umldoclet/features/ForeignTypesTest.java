@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.features;
+
+import nl.talsmasoftware.umldoclet.UMLDoclet;
+import nl.talsmasoftware.umldoclet.util.Testing;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.function.Supplier;
+import java.util.spi.ToolProvider;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Tests the interfaces from other packages that are shown in a package diagram.
+ * <p>
+ * Foreign types are only populated with their members once they are known to be added to the diagram.
+ * Commonly used {@code java.lang} interfaces are left out entirely.
+ *
+ * @author Sjoerd Talsma
+ */
+public class ForeignTypesTest {
+
+    static final File testoutput = Testing.deleteRecursive(new File("target/test-foreign-types"));
+    static final String packageAsPath = ForeignTypesTest.class.getPackageName().replace('.', '/');
+    static String uml;
+
+    public static class First implements Comparable<First>, Runnable {
+        public int compareTo(First other) {
+            return 0;
+        }
+
+        public void run() {
+        }
+    }
+
+    public static class Second implements Comparable<Second> {
+        public int compareTo(Second other) {
+            return 0;
+        }
+    }
+
+    public static class Third implements Comparable<Third>, Supplier<String> {
+        public int compareTo(Third other) {
+            return 0;
+        }
+
+        public String get() {
+            return null;
+        }
+    }
+
+    @BeforeClass
+    public static void createJavadoc() {
+        assertThat("Javadoc result", ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-d", testoutput.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet",
+                "-createPumlFiles",
+                "src/test/java/" + packageAsPath + "/" + ForeignTypesTest.class.getSimpleName() + ".java"
+        ), is(0));
+        uml = Testing.read(new File(testoutput, packageAsPath + "/package.puml"));
+    }
+
+    @Test
+    public void testForeignInterfacesArePopulated() {
+        assertThat(uml, containsString("interface java.lang.Runnable"));
+        assertThat(uml, containsString("{abstract} +run(): void"));
+        assertThat(uml, containsString("interface java.util.function.Supplier"));
+        assertThat(uml, containsString("{abstract} +get(): T"));
+    }
+
+    @Test
+    public void testCommonJavaLangInterfacesAreLeftOut() {
+        assertThat(uml, not(containsString("java.lang.Comparable")));
+        assertThat(uml, not(containsString("compareTo(T)")));
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.features;
+
+import nl.talsmasoftware.umldoclet.UMLDoclet;
+import nl.talsmasoftware.umldoclet.util.Testing;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.spi.ToolProvider;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Tests skipping unchanged packages and types ({@code -umlIncremental} option).
+ *
+ * @author Sjoerd Talsma
+ */
+public class IncrementalTest {
+
+    static final File testoutput = Testing.deleteRecursive(new File("target/test-incremental"));
+    static final String packageAsPath = IncrementalTest.class.getPackageName().replace('.', '/');
+    static final long EPOCH = 1000L * 1000L * 1000L * 1000L;
+
+    public static class Unchanged {
+    }
+
+    private int runJavadoc(File outputdir, String umlOption) {
+        return ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-d", outputdir.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet", umlOption,
+                "src/test/java/" + packageAsPath + '/' + getClass().getSimpleName() + ".java"
+        );
+    }
+
+    private int runJavadoc(File outputdir, File... sources) {
+        List<String> args = new ArrayList<>(asList(
+                "-d", outputdir.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet", "-umlIncremental"));
+        for (File source : sources) args.add(source.getPath());
+        return ToolProvider.findFirst("javadoc").get().run(System.out, System.err, args.toArray(new String[0]));
+    }
+
+    private static File writeSource(File sourcedir, String className, String content) {
+        return Testing.write(new File(sourcedir, className.replace('.', '/') + ".java"), content);
+    }
+
+    @Test
+    public void testUnchangedDiagramsAreNotRenderedAgain() {
+        File outputdir = new File(testoutput, "incremental");
+        assertThat("Javadoc result", runJavadoc(outputdir, "-umlIncremental"), is(0));
+        File image = new File(outputdir, packageAsPath + "/IncrementalTest.Unchanged.svg");
+        assertThat(image.getPath() + " exists and is a file?", image.isFile(), is(true));
+        assertThat("Manifest exists?", new File(outputdir, ".umldoclet-manifest.properties").isFile(), is(true));
+
+        image.setLastModified(EPOCH);
+        assertThat("Javadoc result", runJavadoc(outputdir, "-umlIncremental"), is(0));
+        assertThat("Last modified of " + image, image.lastModified(), is(EPOCH));
+        assertThat("Diagram in HTML", Testing.read(new File(outputdir,
+                packageAsPath + "/IncrementalTest.Unchanged.html")).contains("IncrementalTest.Unchanged.svg"), is(true));
+    }
+
+    @Test
+    public void testDeletedImageOfUnchangedElementIsRenderedAgain() {
+        File outputdir = new File(testoutput, "deleted-image");
+        assertThat("Javadoc result", runJavadoc(outputdir, "-umlIncremental"), is(0));
+        File image = new File(outputdir, packageAsPath + "/IncrementalTest.Unchanged.svg");
+        File otherImage = new File(outputdir, packageAsPath + "/IncrementalTest.svg");
+        assertThat(image.getPath() + " exists and is a file?", image.isFile(), is(true));
+        assertThat("Deleted " + image, image.delete(), is(true));
+        otherImage.setLastModified(EPOCH);
+
+        assertThat("Javadoc result", runJavadoc(outputdir, "-umlIncremental"), is(0));
+        assertThat(image.getPath() + " exists and is a file?", image.isFile(), is(true));
+        assertThat("Diagram in HTML", Testing.read(new File(outputdir,
+                packageAsPath + "/IncrementalTest.Unchanged.html")).contains("IncrementalTest.Unchanged.svg"), is(true));
+        assertThat("Last modified of " + otherImage, otherImage.lastModified(), is(EPOCH));
+    }
+
+    @Test
+    public void testDiagramsAreRenderedAgainWithoutIncrementalOption() {
+        File outputdir = new File(testoutput, "not-incremental");
+        assertThat("Javadoc result", runJavadoc(outputdir, "-createPumlFiles"), is(0));
+        File image = new File(outputdir, packageAsPath + "/IncrementalTest.Unchanged.svg");
+        assertThat(image.getPath() + " exists and is a file?", image.isFile(), is(true));
+
+        image.setLastModified(EPOCH);
+        assertThat("Javadoc result", runJavadoc(outputdir, "-createPumlFiles"), is(0));
+        assertThat("Last modified of " + image, image.lastModified(), is(not(EPOCH)));
+    }
+
+    @Test
+    public void testChangedSupertypeInOtherCompilationUnit() {
+        File sourcedir = new File(testoutput, "supertype-src");
+        File outputdir = new File(testoutput, "supertype");
+        File base = writeSource(sourcedir, "incremental.a.Base",
+                "package incremental.a;\npublic abstract class Base {\n    public abstract void first();\n}\n");
+        File sub = writeSource(sourcedir, "incremental.b.Sub",
+                "package incremental.b;\npublic abstract class Sub extends incremental.a.Base {\n}\n");
+        File other = writeSource(sourcedir, "incremental.b.Other",
+                "package incremental.b;\npublic class Other {\n}\n");
+        assertThat("Javadoc result", runJavadoc(outputdir, base, sub, other), is(0));
+        File subImage = new File(outputdir, "incremental/b/Sub.svg");
+        File packageImage = new File(outputdir, "incremental/b/package.svg");
+        File otherImage = new File(outputdir, "incremental/b/Other.svg");
+        for (File image : asList(subImage, packageImage, otherImage)) {
+            assertThat(image.getPath() + " exists and is a file?", image.isFile(), is(true));
+            image.setLastModified(EPOCH);
+        }
+
+        writeSource(sourcedir, "incremental.a.Base",
+                "package incremental.a;\npublic abstract class Base {\n    public abstract void first();\n    public abstract void second();\n}\n");
+        assertThat("Javadoc result", runJavadoc(outputdir, base, sub, other), is(0));
+        assertThat("Last modified of " + subImage, subImage.lastModified(), is(not(EPOCH)));
+        assertThat("Last modified of " + packageImage, packageImage.lastModified(), is(not(EPOCH)));
+        assertThat("Last modified of " + otherImage, otherImage.lastModified(), is(EPOCH));
+    }
+
+    @Test
+    public void testAddedTypeRegeneratesAllDiagrams() {
+        File sourcedir = new File(testoutput, "added-type-src");
+        File outputdir = new File(testoutput, "added-type");
+        File first = writeSource(sourcedir, "incremental.c.First",
+                "package incremental.c;\npublic class First {\n}\n");
+        assertThat("Javadoc result", runJavadoc(outputdir, first), is(0));
+        File image = new File(outputdir, "incremental/c/First.svg");
+        assertThat(image.getPath() + " exists and is a file?", image.isFile(), is(true));
+        image.setLastModified(EPOCH);
+
+        File second = writeSource(sourcedir, "incremental.c.Second",
+                "package incremental.c;\npublic class Second {\n}\n");
+        assertThat("Javadoc result", runJavadoc(outputdir, first, second), is(0));
+        assertThat("Last modified of " + image, image.lastModified(), is(not(EPOCH)));
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.features;
+
+import nl.talsmasoftware.umldoclet.UMLDoclet;
+import nl.talsmasoftware.umldoclet.util.Testing;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.spi.ToolProvider;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests rendering the diagrams with multiple threads ({@code -umlRenderThreads} option).
+ *
+ * @author Sjoerd Talsma
+ */
+public class ParallelRenderingTest {
+
+    static final File testoutput = Testing.deleteRecursive(new File("target/test-parallel-rendering"));
+    static final String packageAsPath = ParallelRenderingTest.class.getPackageName().replace('.', '/');
+
+    public static class First {
+    }
+
+    public static class Second extends First {
+    }
+
+    public interface Third {
+    }
+
+    public static class Fourth extends Second implements Third {
+    }
+
+    private void assertImageExists(File outputdir, String name) {
+        File image = new File(outputdir, packageAsPath + '/' + name);
+        assertThat(image.getPath() + " exists and is a file?", image.isFile(), is(true));
+    }
+
+    @Test
+    public void testRenderWithMultipleThreads() {
+        File outputdir = new File(testoutput, "multiple-threads");
+        int result = ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-d", outputdir.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet",
+                "-umlRenderThreads", "4",
+                "src/test/java/" + packageAsPath + '/' + getClass().getSimpleName() + ".java"
+        );
+
+        assertThat("Javadoc result", result, is(0));
+        assertImageExists(outputdir, "package.svg");
+        assertImageExists(outputdir, "ParallelRenderingTest.svg");
+        assertImageExists(outputdir, "ParallelRenderingTest.First.svg");
+        assertImageExists(outputdir, "ParallelRenderingTest.Second.svg");
+        assertImageExists(outputdir, "ParallelRenderingTest.Third.svg");
+        assertImageExists(outputdir, "ParallelRenderingTest.Fourth.svg");
+    }
+
+    @Test
+    public void testRenderWithThreadPerProcessor() {
+        File outputdir = new File(testoutput, "thread-per-processor");
+        int result = ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-d", outputdir.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet",
+                "-umlRenderThreads", "0",
+                "src/test/java/" + packageAsPath + '/' + getClass().getSimpleName() + ".java"
+        );
+
+        assertThat("Javadoc result", result, is(0));
+        assertImageExists(outputdir, "package.svg");
+        assertImageExists(outputdir, "ParallelRenderingTest.Fourth.svg");
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.features;
+
+import nl.talsmasoftware.umldoclet.UMLDoclet;
+import nl.talsmasoftware.umldoclet.util.Testing;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.spi.ToolProvider;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Tests replacing both a field and a JavaBean property of the same type by references in the package diagram.
+ *
+ * @author Sjoerd Talsma
+ */
+public class ReplacedMembersTest {
+
+    static final File testoutput = Testing.deleteRecursive(new File("target/test-replaced-members"));
+    static final String packageAsPath = ReplacedMembersTest.class.getPackageName().replace('.', '/');
+    static String uml;
+
+    public static class Target {
+    }
+
+    public static class PropertyTarget {
+    }
+
+    public static class Source {
+        public Target field;
+        public String name;
+
+        public PropertyTarget getProperty() {
+            return null;
+        }
+
+        public void setProperty(PropertyTarget property) {
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @BeforeClass
+    public static void createJavadoc() {
+        assertThat("Javadoc result", ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-d", testoutput.getPath(),
+                "-doclet", UMLDoclet.class.getName(),
+                "-quiet",
+                "-createPumlFiles",
+                "src/test/java/" + packageAsPath + "/" + ReplacedMembersTest.class.getSimpleName() + ".java"
+        ), is(0));
+        uml = Testing.read(new File(testoutput, packageAsPath + "/package.puml"));
+    }
+
+    @Test
+    public void testFieldAndPropertyAreReplacedByReferences() {
+        String source = ReplacedMembersTest.class.getName() + ".Source";
+        String target = ReplacedMembersTest.class.getName() + ".Target";
+        String propertyTarget = ReplacedMembersTest.class.getName() + ".PropertyTarget";
+        assertThat(uml, containsString(source + " --> " + target + ": field"));
+        assertThat(uml, containsString(source + " --> " + propertyTarget + ": property"));
+    }
+
+    @Test
+    public void testReplacedMembersAreRemoved() {
+        assertThat(uml, not(containsString("+field: ")));
+        assertThat(uml, not(containsString("+getProperty()")));
+        assertThat(uml, not(containsString("+setProperty(")));
+    }
+
+    @Test
+    public void testOtherMembersAreKept() {
+        assertThat(uml, containsString("+name: String"));
+        assertThat(uml, containsString("+getName(): String"));
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.html;
+
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
+import nl.talsmasoftware.umldoclet.logging.Message;
+import nl.talsmasoftware.umldoclet.logging.TestLogger;
+import nl.talsmasoftware.umldoclet.util.RelativePaths;
+import nl.talsmasoftware.umldoclet.util.Testing;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static net.sourceforge.plantuml.FileFormat.SVG;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests postprocessing multiple HTML files where some of them fail.
+ *
+ * @author Sjoerd Talsma
+ */
+public class HtmlPostprocessorTest {
+    static final File testoutput = Testing.deleteRecursive(new File("target/test-postprocessor"));
+    static final String[] NAMES = {"First", "Second", "Third", "Fourth"};
+    static final String HTML = "<html><body>\n<hr>\n<div class=\"summary\">\n</div>\n</body></html>\n";
+
+    private File outputdir;
+    private Configuration config;
+    private TestLogger logger;
+
+    @Before
+    public void setup() {
+        outputdir = Testing.createDirectory(new File(testoutput, Long.toString(System.nanoTime())));
+        ImageConfig images = mock(ImageConfig.class);
+        when(images.formats()).thenReturn(singleton(SVG));
+        when(images.directory()).thenReturn(Optional.empty());
+        when(images.postprocessThreads()).thenReturn(2);
+        config = mock(Configuration.class);
+        when(config.destinationDirectory()).thenReturn(outputdir.getPath());
+        when(config.images()).thenReturn(images);
+        when(config.relativePaths()).thenReturn(new RelativePaths());
+        when(config.htmlCharset()).thenReturn(UTF_8);
+        logger = new TestLogger();
+        when(config.logger()).thenReturn(logger);
+    }
+
+    /**
+     * Writes the HTML files for the failure tests in UTF-16, where the second and third files are malformed.
+     *
+     * @return The HTML files that were written.
+     */
+    private List<File> htmlFilesWithFailures() throws IOException {
+        when(config.htmlCharset()).thenReturn(UTF_16);
+        final byte[] malformed = {(byte) 0xFE, (byte) 0xFF, (byte) 0xD8, 0x00, 0x00, 0x61};
+        final List<File> htmlFiles = new ArrayList<>();
+        for (String name : NAMES) {
+            Testing.write(new File(outputdir, "pkg/" + name + ".svg"), "<svg/>");
+            File htmlFile = new File(outputdir, "pkg/" + name + ".html");
+            Files.write(htmlFile.toPath(), name.equals("Second") || name.equals("Third") ? malformed : HTML.getBytes(UTF_16));
+            htmlFiles.add(htmlFile);
+        }
+        return htmlFiles;
+    }
+
+    private String read(String name) throws IOException {
+        return new String(Files.readAllBytes(new File(outputdir, "pkg/" + name + ".html").toPath()), config.htmlCharset());
+    }
+
+    @Test
+    public void testPostprocessExistingDiagramsCollectsAllFailures() throws IOException {
+        Map<File, File> diagramFilesByHtmlFile = new LinkedHashMap<>();
+        for (File htmlFile : htmlFilesWithFailures()) {
+            diagramFilesByHtmlFile.put(htmlFile, new File(htmlFile.getParent(), htmlFile.getName().replace(".html", ".svg")));
+        }
+        HtmlPostprocessor postprocessor = new HtmlPostprocessor(config);
+
+        postprocessor.postProcess(diagramFilesByHtmlFile);
+        try {
+            postprocessor.rethrowFailures();
+            fail("Exception expected");
+        } catch (IllegalStateException expected) {
+            assertFailures(expected);
+        }
+        List<Object> logged = logger.logged.stream()
+                .filter(record -> Message.INFO_ADD_DIAGRAM_TO_FILE.equals(record.message))
+                .map(record -> record.arguments.get(0).toString())
+                .collect(toList());
+        assertThat("Logged in order of the HTML files", logged,
+                is(equalTo(diagramFilesByHtmlFile.keySet().stream().map(File::getPath).collect(toList()))));
+    }
+
+    @Test
+    public void testPostprocessDestinationDirectoryCollectsAllFailures() throws Exception {
+        htmlFilesWithFailures();
+        HtmlPostprocessor postprocessor = new HtmlPostprocessor(config);
+
+        try {
+            postprocessor.postProcessHtml();
+            fail("Exception expected");
+        } catch (IllegalStateException expected) {
+            assertFailures(expected);
+        }
+    }
+
+    @Test
+    public void testHtmlMentioningDiagramAfterInsertionPointIsLeftUntouched() {
+        String html = HTML.replace("</body>", "<a href=\"First.svg\">First diagram</a>\n</body>");
+        File htmlFile = Testing.write(new File(outputdir, "pkg/First.html"), html);
+        File diagramFile = Testing.write(new File(outputdir, "pkg/First.svg"), "<svg/>");
+
+        assertThat(new HtmlPostprocessor(config).postProcess(htmlFile, diagramFile), is(false));
+        assertThat(Testing.read(htmlFile), is(html));
+    }
+
+    @Test
+    public void testHtmlLargerThanReadChunkIsPostprocessed() {
+        StringBuilder padding = new StringBuilder();
+        while (padding.length() < 2 * 1024 * 1024) padding.append("<p>Padding paragraph for a large page.</p>\n");
+        String html = HTML.replace("</body>", padding + "</body>");
+        File htmlFile = Testing.write(new File(outputdir, "pkg/Large.html"), html);
+        File diagramFile = Testing.write(new File(outputdir, "pkg/Large.svg"), "<svg/>");
+
+        assertThat(new HtmlPostprocessor(config).postProcess(htmlFile, diagramFile), is(true));
+        String result = Testing.read(htmlFile);
+        assertThat(result, containsString("Large.svg"));
+        assertThat(result, containsString(padding + "</body>"));
+        assertThat(result.length(), is(greaterThan(html.length())));
+        assertThat(new File(outputdir, "pkg").list((dir, name) -> name.endsWith(".tmp")).length, is(0));
+    }
+
+    private void assertFailures(IllegalStateException aggregate) throws IOException {
+        assertThat(aggregate.getMessage(), containsString("2 HTML file(s) could not be postprocessed"));
+        assertThat(aggregate.getSuppressed().length, is(2));
+        assertThat(aggregate.getMessage(), containsString("Second.html"));
+        assertThat(aggregate.getMessage(), containsString("Third.html"));
+        assertThat(read("First"), containsString("First.svg"));
+        assertThat(read("Second"), not(containsString("Second.svg")));
+        assertThat(read("Third"), not(containsString("Third.svg")));
+        assertThat(read("Fourth"), containsString("Fourth.svg"));
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import nl.talsmasoftware.umldoclet.uml.Reference;
+import org.junit.Test;
+
+import static java.util.stream.Collectors.toList;
+import static nl.talsmasoftware.umldoclet.uml.Reference.Side.from;
+import static nl.talsmasoftware.umldoclet.uml.Reference.Side.to;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class ReferenceIndexTest {
+
+    @Test
+    public void testAddEqualReferenceOnlyOnce() {
+        ReferenceIndex index = new ReferenceIndex();
+        index.add(new Reference(from("a.A"), "--|>", to("a.B")));
+        index.add(new Reference(from("a.B"), "<|--", to("a.A")));
+        assertThat(index.stream().count(), is(1L));
+        assertThat(index.countReferencesTo("a.A"), is(1));
+        assertThat(index.countReferencesTo("a.B"), is(1));
+    }
+
+    @Test
+    public void testMergeNotes() {
+        ReferenceIndex index = new ReferenceIndex();
+        index.merge(new Reference(from("a.A"), "-->", to("a.B"), "first"));
+        index.merge(new Reference(from("a.A"), "-->", to("a.C")));
+        index.merge(new Reference(from("a.A"), "-->", to("a.B"), "second"));
+
+        assertThat(index.stream().map(ref -> ref.to.qualifiedName).collect(toList()), contains("a.C", "a.B"));
+        assertThat(index.stream().filter(ref -> ref.to.qualifiedName.equals("a.B")).findFirst().get().notes,
+                contains("first", "second"));
+    }
+
+    @Test
+    public void testRemoveReferencesTo() {
+        ReferenceIndex index = new ReferenceIndex();
+        index.add(new Reference(from("a.A"), "..|>", to("java.lang.Comparable")));
+        index.add(new Reference(from("a.B"), "..|>", to("java.lang.Comparable")));
+        index.add(new Reference(from("a.B"), "--|>", to("a.A")));
+
+        assertThat(index.countReferencesTo("java.lang.Comparable"), is(2));
+        index.removeReferencesTo("java.lang.Comparable");
+        assertThat(index.countReferencesTo("java.lang.Comparable"), is(0));
+        assertThat(index.countReferencesTo("a.A"), is(1));
+        assertThat(index.countReferencesTo("a.B"), is(1));
+        assertThat(index.stream().count(), is(1L));
+    }
+
+}
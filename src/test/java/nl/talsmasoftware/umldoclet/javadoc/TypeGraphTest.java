@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import com.sun.source.util.JavacTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.ToolProvider;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Sjoerd Talsma
+ */
+public class TypeGraphTest {
+
+    private Elements elements;
+    private TypeGraph graph;
+
+    public interface Marker {
+    }
+
+    public static class Base {
+    }
+
+    public static class Sub extends Base implements Marker {
+        public String field;
+
+        public Sub() {
+        }
+
+        public void method() {
+        }
+
+        public class Inner {
+        }
+
+        public enum Nested {
+            CONSTANT
+        }
+    }
+
+    @Before
+    public void setup() {
+        JavacTask task = (JavacTask) ToolProvider.getSystemJavaCompiler().getTask(null, null, null,
+                asList("-proc:none", "-classpath", System.getProperty("java.class.path")), null, null);
+        elements = task.getElements();
+        graph = new TypeGraph();
+    }
+
+    private TypeElement type(Class<?> type) {
+        return elements.getTypeElement(type.getCanonicalName());
+    }
+
+    private static List<String> names(List<?> elementsOrTypes) {
+        return elementsOrTypes.stream().map(Object::toString).collect(toList());
+    }
+
+    @Test
+    public void testNodesAreCreatedOnce() {
+        assertThat(graph.nodeOf(type(Sub.class)), is(sameInstance(graph.nodeOf(type(Sub.class)))));
+    }
+
+    @Test
+    public void testSuperclass() {
+        assertThat(graph.nodeOf(type(Sub.class)).superclass.toString(), is(Base.class.getCanonicalName()));
+        assertThat(graph.nodeOf(type(Base.class)).superclass.toString(), is(Object.class.getName()));
+        assertThat(graph.nodeOf(type(Object.class)).superclass, is(nullValue()));
+        assertThat(graph.nodeOf(type(Marker.class)).superclass, is(nullValue()));
+    }
+
+    @Test
+    public void testInterfaces() {
+        assertThat(names(graph.nodeOf(type(Sub.class)).interfaces), contains(Marker.class.getCanonicalName()));
+        assertThat(graph.nodeOf(type(Base.class)).interfaces, is(empty()));
+    }
+
+    @Test
+    public void testEnclosingType() {
+        assertThat(graph.nodeOf(type(Sub.Inner.class)).enclosingType, is(type(Sub.class)));
+        assertThat(graph.nodeOf(type(Sub.class)).enclosingType, is(type(TypeGraphTest.class)));
+        assertThat(graph.nodeOf(type(TypeGraphTest.class)).enclosingType, is(nullValue()));
+    }
+
+    @Test
+    public void testInnerTypes() {
+        assertThat(graph.nodeOf(type(Sub.class)).innerTypes, containsInAnyOrder(type(Sub.Inner.class), type(Sub.Nested.class)));
+        assertThat(graph.nodeOf(type(Base.class)).innerTypes, is(empty()));
+    }
+
+    @Test
+    public void testMembers() {
+        TypeGraph.Node sub = graph.nodeOf(type(Sub.class));
+        assertThat(names(sub.fields), contains("field"));
+        assertThat(names(sub.constructors), contains("Sub()"));
+        assertThat(names(sub.methods), contains("method()"));
+        assertThat(names(graph.nodeOf(type(Sub.Nested.class)).enumConstants), contains("CONSTANT"));
+    }
+
+}
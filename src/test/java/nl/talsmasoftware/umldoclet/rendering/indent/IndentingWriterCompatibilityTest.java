@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.rendering.indent;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.Character.isWhitespace;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Verifies that the {@link IndentingWriter} produces the same output as its previous character-by-character
+ * implementation.
+ *
+ * @author Sjoerd Talsma
+ */
+public class IndentingWriterCompatibilityTest {
+    private static final String[] WORDS = {"class", "nl.talsmasoftware.umldoclet.uml.Type", "{\n",
+            "+Type(Namespace, TypeClassification, TypeName)\n", "+getName():", "TypeName\n",
+            "+getClassfication():", "TypeClassification\n", "+isDeprecated():", "boolean\n",
+            "~addPackageToName():", "Type\n", "}\n"};
+    private static final String[] LINE_ENDINGS = {"first\r\n", "\r\n", "second", "\n\n", " third", "\r", "fourth\n"};
+
+    @Test
+    public void testSameOutputAsPerCharacterWriter() throws IOException {
+        StringWriter perCharacter = new StringWriter(), bulk = new StringWriter();
+        writeWords(new PerCharacterIndentingWriter(perCharacter, Indentation.DEFAULT.increase()), 3, WORDS);
+        writeWords(IndentingWriter.wrap(bulk, Indentation.DEFAULT.increase()), 3, WORDS);
+        assertThat(bulk.toString(), is(perCharacter.toString()));
+    }
+
+    @Test
+    public void testSameOutputForMixedLineEndings() throws IOException {
+        StringWriter perCharacter = new StringWriter(), bulk = new StringWriter();
+        writeWords(new PerCharacterIndentingWriter(perCharacter, Indentation.tabs(1)), 2, LINE_ENDINGS);
+        writeWords(IndentingWriter.wrap(bulk, Indentation.tabs(1)), 2, LINE_ENDINGS);
+        assertThat(bulk.toString(), is(perCharacter.toString()));
+    }
+
+    /**
+     * Writes the words separated by {@code whitespace()}, the way the UML renderers do.
+     */
+    private static void writeWords(Writer writer, int repetitions, String... words) throws IOException {
+        for (int i = 0; i < repetitions; i++) {
+            for (String word : words) {
+                writer.write(word);
+                if (writer instanceof IndentingWriter) ((IndentingWriter) writer).whitespace();
+                else ((PerCharacterIndentingWriter) writer).whitespace();
+            }
+        }
+    }
+
+    /**
+     * The previous {@code IndentingWriter.write} implementation, appending every character to the delegate separately.
+     */
+    private static final class PerCharacterIndentingWriter extends Writer {
+        private final Appendable delegate;
+        private final Indentation indentation;
+        private final AtomicBoolean addWhitespace = new AtomicBoolean(false);
+        private char lastWritten = '\n';
+
+        private PerCharacterIndentingWriter(Appendable delegate, Indentation indentation) {
+            this.delegate = delegate;
+            this.indentation = indentation;
+        }
+
+        private void whitespace() {
+            addWhitespace.set(true);
+        }
+
+        private static boolean isEol(char ch) {
+            return ch == '\r' || ch == '\n';
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (len > 0) {
+                char ch = cbuf[off];
+                synchronized (lock) {
+                    if (addWhitespace.compareAndSet(true, false) && !isWhitespace(lastWritten) && !isWhitespace(ch)) {
+                        delegate.append(' ');
+                        lastWritten = ' ';
+                    }
+                    for (int i = 0; i < len; i++) {
+                        ch = cbuf[off + i];
+                        if (isEol(lastWritten) && !isEol(ch)) delegate.append(indentation);
+                        delegate.append(ch);
+                        lastWritten = ch;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
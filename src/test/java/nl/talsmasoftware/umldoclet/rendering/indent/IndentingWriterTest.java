@@ -37,6 +37,24 @@ public class IndentingWriterTest {
         assertThat(output, hasToString("23"));
     }
 
+    @Test
+    public void testIndentingMultipleLinesInOneWrite() throws IOException {
+        StringWriter output = new StringWriter();
+        new IndentingWriter(output, Indentation.DEFAULT.increase()).write("first\r\nsecond\n\nthird\n");
+        assertThat(output, hasToString("    first\r\n    second\n\n    third\n"));
+    }
+
+    @Test
+    public void testIndentingAcrossWrites() throws IOException {
+        StringBuilder output = new StringBuilder();
+        IndentingWriter indentingWriter = new IndentingWriter(output, Indentation.DEFAULT.increase());
+        indentingWriter.write("first\n");
+        indentingWriter.write("sec".toCharArray());
+        indentingWriter.write("ond\nthird");
+        indentingWriter.whitespace().write("line");
+        assertThat(output, hasToString("    first\n    second\n    third line"));
+    }
+
     @Test
     public void testUnindentFromZero() {
         IndentingWriter indentingWriter = new IndentingWriter(new StringWriter(), Indentation.DEFAULT);
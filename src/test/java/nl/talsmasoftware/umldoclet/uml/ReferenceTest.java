@@ -44,4 +44,23 @@ public class ReferenceTest {
         assertThat(ref2.canonical(), hasToString(equalTo(ref1.toString())));
     }
 
+    @Test
+    public void testCanonicalIsDeterminedOnce() {
+        Reference ref = new Reference(from("type1"), "--|>", to("type2"));
+        assertThat(ref.canonical(), is(sameInstance(ref.canonical())));
+        assertThat(ref.canonical().canonical(), is(sameInstance(ref.canonical())));
+        Reference canonicalRef = new Reference(from("type2"), "<|--", to("type1"));
+        assertThat(canonicalRef.canonical(), is(sameInstance(canonicalRef)));
+    }
+
+    @Test
+    public void testHashCodeAndEqualsOfInverseReferences() {
+        Reference ref1 = new Reference(from("type1", "1"), "--*", to("type2"));
+        Reference ref2 = new Reference(from("type2"), "*--", to("type1", "1"));
+        assertThat(ref1.hashCode(), is(ref2.hashCode()));
+        assertThat(ref1, is(equalTo(ref2)));
+        assertThat(ref1, is(not(equalTo(new Reference(from("type1"), "--*", to("type2"))))));
+        assertThat(ref1, is(not(equalTo(new Reference(from("type1", "1"), "--o", to("type2"))))));
+    }
+
 }
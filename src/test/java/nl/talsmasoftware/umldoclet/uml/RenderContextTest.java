@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml;
+
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.logging.TestLogger;
+import nl.talsmasoftware.umldoclet.rendering.indent.Indentation;
+import nl.talsmasoftware.umldoclet.rendering.indent.IndentingPrintWriter;
+import nl.talsmasoftware.umldoclet.util.RelativePaths;
+import nl.talsmasoftware.umldoclet.util.Testing;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static nl.talsmasoftware.umldoclet.util.Testing.createDirectory;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RenderContextTest {
+    private static final int RENDERS_PER_CONTEXT = 50;
+
+    static final File testoutput = Testing.deleteRecursive(new File("target/test-render-context"));
+
+    private static PackageUml createDiagramWithLink() {
+        final File page = Testing.write(new File(testoutput, "a/b/c/Target.html"), "<html></html>");
+        final Configuration config = mock(Configuration.class);
+        when(config.logger()).thenReturn(new TestLogger());
+        when(config.indentation()).thenReturn(Indentation.DEFAULT);
+        when(config.destinationDirectory()).thenReturn(testoutput.getPath());
+        when(config.relativePaths()).thenReturn(new RelativePaths());
+        when(config.resolveDocumentationPage("a.b.c", "Target")).thenReturn(Optional.of(page));
+
+        final PackageUml packageUml = new PackageUml(config, "a.b.c");
+        final Namespace namespace = new Namespace(packageUml, "a.b.c");
+        final Type type = new Type(namespace, Type.Classification.CLASS, new TypeName("Target", "a.b.c.Target"));
+        packageUml.addChild(type);
+        return packageUml;
+    }
+
+    private static String render(UMLPart part, RenderContext context) {
+        return part.writeTo(IndentingPrintWriter.wrap(new StringWriter(), Indentation.DEFAULT), context).toString();
+    }
+
+    private static Callable<String> renderAfter(CountDownLatch start, UMLPart part, RenderContext context) {
+        return () -> {
+            start.await();
+            return render(part, context);
+        };
+    }
+
+    @Test
+    public void testEquals() {
+        File directory = new File(testoutput, "images");
+        assertThat(RenderContext.linkingFrom(directory), is(RenderContext.linkingFrom(directory)));
+        assertThat(RenderContext.linkingFrom(directory), is(not(RenderContext.DEFAULT)));
+        assertThat(RenderContext.DEFAULT.linkFrom().isPresent(), is(false));
+    }
+
+    @Test
+    public void testRenderingConcurrentlyInDifferentContexts() throws Exception {
+        final PackageUml diagram = createDiagramWithLink();
+        final RenderContext fromImages = RenderContext.linkingFrom(createDirectory(new File(testoutput, "images")));
+        final RenderContext fromParent = RenderContext.linkingFrom(createDirectory(new File(testoutput, "a")));
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Callable<String>> renders = new ArrayList<>();
+        final List<String> expectedLinks = new ArrayList<>();
+        for (int i = 0; i < RENDERS_PER_CONTEXT; i++) {
+            renders.add(renderAfter(start, diagram, RenderContext.DEFAULT));
+            expectedLinks.add("[[Target.html]]");
+            renders.add(renderAfter(start, diagram, fromImages));
+            expectedLinks.add("[[../a/b/c/Target.html]]");
+            renders.add(renderAfter(start, diagram, fromParent));
+            expectedLinks.add("[[b/c/Target.html]]");
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (Callable<String> render : renders) results.add(executor.submit(render));
+            start.countDown();
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get(), containsString(expectedLinks.get(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TypeNameTest {
+
+    private static final TypeName STRING = new TypeName("String", "java.lang.String");
+
+    private static TypeName listOf(TypeName generic) {
+        return new TypeName("List", "java.util.List", generic);
+    }
+
+    @Test
+    public void testInternIdenticalTypeNames() {
+        Map<String, TypeName> pool = new HashMap<>();
+        TypeName listOfString = listOf(STRING).intern(pool);
+        assertThat(listOf(new TypeName("String", "java.lang.String")).intern(pool), is(sameInstance(listOfString)));
+    }
+
+    @Test
+    public void testInternDistinguishesGenerics() {
+        Map<String, TypeName> pool = new HashMap<>();
+        TypeName listOfString = listOf(STRING).intern(pool);
+        assertThat(listOf(new TypeName("String", "other.String")).intern(pool), is(not(sameInstance(listOfString))));
+        assertThat(listOf(new TypeName("Integer", "java.lang.Integer")).intern(pool), is(not(sameInstance(listOfString))));
+    }
+
+    @Test
+    public void testInternDistinguishesArraysAndVariables() {
+        Map<String, TypeName> pool = new HashMap<>();
+        TypeName string = STRING.intern(pool);
+        assertThat(TypeName.Array.of(STRING).intern(pool), is(not(sameInstance(string))));
+        assertThat(TypeName.Variable.extendsBound("T", STRING).intern(pool), is(not(sameInstance(string))));
+        assertThat(TypeName.Variable.extendsBound("T", STRING).intern(pool),
+                is(not(sameInstance(TypeName.Variable.superBound("T", STRING).intern(pool)))));
+    }
+
+}
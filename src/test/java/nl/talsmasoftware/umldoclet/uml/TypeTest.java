@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TypeTest {
+
+    private static Type createPopulatedType() {
+        Type type = new Type(new Namespace(null, "a.b"), Type.Classification.ABSTRACT_CLASS, new TypeName("C", "a.b.C"));
+        type.addChild(new Field(type, Visibility.PRIVATE, false, "field", new TypeName("String", "java.lang.String")));
+        type.addChild(new Method(type, Visibility.PUBLIC, true, false, "abstractMethod", new Parameters(), null));
+        type.addChild(new Method(type, Visibility.PUBLIC, false, false, "concreteMethod",
+                new Parameters().add("param", new TypeName("int", "int")), null));
+        return type;
+    }
+
+    private static List<TypeMember> membersOf(Type type) {
+        List<TypeMember> members = new ArrayList<>();
+        type.getChildren().forEach(child -> members.add((TypeMember) child));
+        return members;
+    }
+
+    @Test
+    public void testCopyAllMembers() {
+        Type type = createPopulatedType();
+        Type copy = type.copy(member -> true);
+
+        assertThat(copy, is(not(sameInstance(type))));
+        assertThat(copy, is(type));
+        assertThat(copy.getNamespace(), is(not(sameInstance(type.getNamespace()))));
+        assertThat(copy.getNamespace(), is(type.getNamespace()));
+        assertThat(membersOf(copy), contains(membersOf(type).toArray()));
+        for (TypeMember member : membersOf(copy)) {
+            assertThat(member.getParent(), is(sameInstance(copy)));
+        }
+    }
+
+    @Test
+    public void testCopyAbstractMembers() {
+        Type type = createPopulatedType();
+        Type copy = type.copy(member -> member.isAbstract);
+
+        assertThat(copy.getChildren().size(), is(1));
+        assertThat(((TypeMember) copy.getChildren().iterator().next()).name, is("abstractMethod"));
+        assertThat(type.getChildren().size(), is(3));
+    }
+
+    @Test
+    public void testDeprecatedKeepsChildren() {
+        Type type = createPopulatedType();
+        List<TypeMember> members = membersOf(type);
+
+        assertThat(type.deprecated(), is(sameInstance(type)));
+        assertThat(type.addPackageToName(), is(sameInstance(type)));
+        assertThat(membersOf(type), contains(members.toArray()));
+        for (TypeMember member : membersOf(type)) {
+            assertThat(member.getParent(), is(sameInstance(type)));
+        }
+    }
+
+    @Test
+    public void testCopyWithoutMembers() {
+        Type copy = createPopulatedType().copy(member -> false);
+        assertThat(copy.getChildren(), is(empty()));
+    }
+
+}
@@ -19,6 +19,8 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import static nl.talsmasoftware.umldoclet.util.FileUtils.relativePath;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -58,6 +60,17 @@ public class FileUtilsTest {
         }
     }
 
+    @Test
+    public void testRelativePathArithmetic() {
+        final Path base = Paths.get("base").toAbsolutePath();
+        assertThat(relativePath(base, base.resolve("file.html")), is("file.html"));
+        assertThat(relativePath(base, base.resolve("a").resolve("b").resolve("file.html")), is("a/b/file.html"));
+        assertThat(relativePath(base.resolve("a").resolve("b"), base.resolve("file.html")), is("../../file.html"));
+        assertThat(relativePath(base.resolve("a"), base.resolve("c").resolve("file.html")), is("../c/file.html"));
+        assertThat(relativePath(base.resolve("a"), base), is(".."));
+        assertThat(relativePath(base, base), is(""));
+    }
+
     @Test
     public void testRelativePath_fromNull() {
         assertThat(relativePath(null, new File("testfile.adoc")), is(nullValue()));
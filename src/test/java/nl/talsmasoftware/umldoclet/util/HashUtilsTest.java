@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.util;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class HashUtilsTest {
+
+    @Test
+    public void testUnsupportedConstructor() {
+        Testing.assertUnsupportedConstructor(HashUtils.class);
+    }
+
+    @Test
+    public void testSha256Hex() {
+        assertThat(HashUtils.sha256Hex(""),
+                is("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855"));
+        assertThat(HashUtils.sha256Hex("abc"),
+                is("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"));
+    }
+
+    @Test
+    public void testSha256HexDiffersForDifferentValues() {
+        assertThat(HashUtils.sha256Hex("Hello"), is(not(HashUtils.sha256Hex("hello"))));
+    }
+
+}
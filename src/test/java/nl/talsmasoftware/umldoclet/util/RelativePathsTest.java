@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-2018 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.util;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class RelativePathsTest {
+
+    @Test
+    public void testRelativePath() throws IOException {
+        final File tempfile = File.createTempFile("dummy", ".tmp");
+        try {
+            final File tempdir = tempfile.getParentFile();
+            final RelativePaths relativePaths = new RelativePaths();
+
+            assertThat(relativePaths.relativePath(tempdir, new File(tempdir, "testfile.adoc")), is("testfile.adoc"));
+            assertThat(relativePaths.relativePath(tempdir, new File(new File(tempdir, "subdir1"), "testfile.adoc")),
+                    is("subdir1/testfile.adoc"));
+            assertThat(relativePaths.relativePath(new File(tempdir, "."), new File(tempdir, "testfile.adoc")),
+                    is("testfile.adoc"));
+        } finally {
+            assertThat("Tempfile opruimen", tempfile.delete(), is(true));
+        }
+    }
+
+    @Test
+    public void testIsDirectory() throws IOException {
+        final File tempfile = File.createTempFile("dummy", ".tmp");
+        try {
+            final RelativePaths relativePaths = new RelativePaths();
+            assertThat(relativePaths.isDirectory(tempfile.getParentFile()), is(true));
+            assertThat(relativePaths.isDirectory(tempfile), is(false));
+            assertThat(relativePaths.isDirectory(null), is(false));
+        } finally {
+            assertThat("Tempfile opruimen", tempfile.delete(), is(true));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRelativePathFromNonDirectory() throws IOException {
+        final File tempfile = File.createTempFile("dummy", ".tmp");
+        try {
+            new RelativePaths().relativePath(tempfile, new File(tempfile.getParentFile(), "testfile.adoc"));
+        } finally {
+            tempfile.delete();
+        }
+    }
+
+}